@@ -0,0 +1,126 @@
+package app;
+
+import solver.WideSudokuSolver;
+import solver.utils.SudokuParser;
+import solver.wide.WideBoard;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Solves generated puzzles of box size 2 to 5 and prints the throughput of each size. 9x9
+// runs twice, through the fast path and through the wide board, to show what the fast path saves.
+public class ScalingBenchmark {
+    private static final long SEED = 20240917L;
+    // Untimed passes over each run first, for at least this long, so the JIT has fully
+    // compiled the path being measured
+    private static final long WARMUP_NANOS = 2_000_000_000L;
+    // Box size, puzzles and share of cells given for each run
+    private static final int[][] RUNS = {
+            {2, 10_000, 40},
+            {3, 2_000, 35},
+            {4, 1_000, 55},
+            {5, 200, 60},
+    };
+
+    public static void main(String[] args) {
+        WideSudokuSolver solver = new WideSudokuSolver();
+        Random random = new Random(SEED);
+
+        for (int[] run : RUNS) {
+            int box = run[0];
+            List<String> puzzles = new ArrayList<>();
+            for (int k = 0; k < run[1]; ++k) {
+                puzzles.add(generate(box, run[2], random));
+            }
+
+            warmUp(solver, puzzles, false);
+            report(box + "x" + box + " boxes", puzzles, solveAll(solver, puzzles, false));
+            if (box == 3) {
+                warmUp(solver, puzzles, true);
+                report(box + "x" + box + " boxes, wide path", puzzles, solveAll(solver, puzzles, true));
+            }
+        }
+    }
+
+    private static void warmUp(WideSudokuSolver solver, List<String> puzzles, boolean forceWide) {
+        long elapsedTime = 0;
+        while (elapsedTime < WARMUP_NANOS) {
+            elapsedTime += solveAll(solver, puzzles, forceWide);
+        }
+    }
+
+    private static long solveAll(WideSudokuSolver solver, List<String> puzzles, boolean forceWide) {
+        int unsolved = 0;
+        long startTime = System.nanoTime();
+        for (String puzzle : puzzles) {
+            String solution;
+            if (forceWide) {
+                WideBoard board = SudokuParser.parseWideBoard(puzzle);
+                solution = solver.solve(board) ? SudokuParser.wideBoardToString(board) : null;
+            }
+            else {
+                solution = solver.solve(puzzle);
+            }
+            if (solution == null) ++unsolved;
+        }
+        long elapsedTime = Math.max(1, System.nanoTime() - startTime);
+
+        if (unsolved > 0) System.out.println("No solution found for " + unsolved + " puzzles");
+        return elapsedTime;
+    }
+
+    private static void report(String name, List<String> puzzles, long nanos) {
+        int size = (int) Math.round(Math.sqrt(puzzles.get(0).length()));
+        System.out.println(size + "x" + size + " (" + name + "): "
+                + (1_000_000_000L * puzzles.size() / nanos) + " sudokus/second, "
+                + (nanos / 1_000 / puzzles.size()) + " us average");
+    }
+
+    // A random solved grid with only the given percentage of its cells kept. Puzzles are not
+    // checked for a unique solution, which does not matter for throughput.
+    private static String generate(int box, int givenPercent, Random random) {
+        int size = box * box;
+
+        // Shuffling rows inside bands, bands, columns inside stacks, stacks and digits keeps
+        // the base pattern a valid grid
+        int[] rows = shuffledLines(box, random);
+        int[] cols = shuffledLines(box, random);
+        int[] digits = new int[size];
+        for (int k = 0; k < size; ++k) digits[k] = k + 1;
+        shuffle(digits, 0, size, random);
+
+        WideBoard board = new WideBoard(box);
+        for (int r = 0; r < size; ++r) {
+            for (int c = 0; c < size; ++c) {
+                if (random.nextInt(100) >= givenPercent) continue;
+                int row = rows[r];
+                int col = cols[c];
+                board.setNumber(r, c, digits[(box * (row % box) + row / box + col) % size]);
+            }
+        }
+        return SudokuParser.wideBoardToString(board);
+    }
+
+    private static int[] shuffledLines(int box, Random random) {
+        int[] bands = new int[box];
+        for (int k = 0; k < box; ++k) bands[k] = k;
+        shuffle(bands, 0, box, random);
+
+        int[] lines = new int[box * box];
+        for (int b = 0; b < box; ++b) {
+            for (int k = 0; k < box; ++k) lines[b * box + k] = bands[b] * box + k;
+            shuffle(lines, b * box, box, random);
+        }
+        return lines;
+    }
+
+    private static void shuffle(int[] array, int from, int length, Random random) {
+        for (int k = length - 1; k > 0; --k) {
+            int j = random.nextInt(k + 1);
+            int swap = array[from + k];
+            array[from + k] = array[from + j];
+            array[from + j] = swap;
+        }
+    }
+}
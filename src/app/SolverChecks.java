@@ -0,0 +1,472 @@
+package app;
+
+import solver.ConcurrentSudokuSolver;
+import solver.SequentialSudokuSolver;
+import solver.SolverOptions;
+import solver.WideSudokuSolver;
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import solver.batch.BatchScheduler;
+import solver.batch.ParallelBatchSolver;
+import solver.batch.SimdBatchSolver;
+import solver.com.Board;
+import solver.fast.BandSolver;
+import solver.fast.BandStrategy;
+import solver.strategies.PortfolioStrategy;
+import solver.strategies.StrategyScheduler;
+import solver.utils.SudokuParser;
+import solver.wide.Variant;
+import solver.wide.WideBoard;
+import solver.wide.WideUnits;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+
+// Checks that the solver engines solve the bundled puzzles correctly: each solution keeps the
+// clues and holds every digit once in every unit. Larger grids and variants have no bundled
+// puzzles, so they are checked on puzzles cut from a solved grid. Prints one line per engine and exits with
+// status 1 if any engine returned a wrong solution or none. The puzzle file is the first
+// argument, res/benchmark.txt from the project directory by default.
+public class SolverChecks {
+    private static final String DEFAULT_INPUT = "res/benchmark.txt";
+    private static final long SEED = 20240917L;
+    // Puzzles per grid and share of cells given
+    private static final int GENERATED_PUZZLES = 20;
+    private static final int GIVEN_PERCENT = 60;
+    // Threads calling one solver at once
+    private static final int SHARING_THREADS = 6;
+    // Search nodes or time before a puzzle of a hybrid batch splits
+    private static final int PROMOTION_NODES = 64;
+    private static final long PROMOTION_NANOS = 100_000;
+    // Solutions counted before a count stops; two tell a unique puzzle from one with several
+    private static final int COUNT_LIMIT = 2;
+    // Boxes, except that the first two boxes of the top band trade one cell each
+    private static final String JIGSAW_REGIONS =
+            "AAAABBCCC" +
+            "AABBBBCCC" +
+            "AAABBBCCC" +
+            "DDDEEEFFF" +
+            "DDDEEEFFF" +
+            "DDDEEEFFF" +
+            "GGGHHHIII" +
+            "GGGHHHIII" +
+            "GGGHHHIII";
+
+    private static int failures = 0;
+
+    public static void main(String[] args) {
+        List<String> puzzles = readPuzzlesFromFile(args.length > 0 ? args[0] : DEFAULT_INPUT);
+        WideUnits classic = WideUnits.of(3);
+
+        // The puzzles have one solution each, so a wrong elimination before a guess leaves the
+        // search nothing to find
+        SequentialSudokuSolver subsets = new SequentialSudokuSolver(new SolverOptions()
+                .useEliminationStrategy(true)
+                .useNakedSingleStrategy(true)
+                .useHiddenSingleStrategy(true)
+                .useSubsetStrategies(true)
+                .useBacktrackingStrategy(true)
+                .BFSDepth(1));
+        check("Subsets and locked candidates", puzzles, classic, solveEach(subsets::solve, puzzles));
+
+        SequentialSudokuSolver fish = new SequentialSudokuSolver(new SolverOptions()
+                .useEliminationStrategy(true)
+                .useNakedSingleStrategy(true)
+                .useHiddenSingleStrategy(true)
+                .useFishStrategy(true)
+                .useBacktrackingStrategy(true)
+                .BFSDepth(1));
+        check("Fish", puzzles, classic, solveEach(fish::solve, puzzles));
+
+        SequentialSudokuSolver dancingLinks = new SequentialSudokuSolver(new SolverOptions()
+                .useEliminationStrategy(true)
+                .useDancingLinksStrategy(true));
+        check("Dancing links", puzzles, classic, solveEach(dancingLinks::solve, puzzles));
+
+        BandSolver band = new BandSolver();
+        List<String> bandSolutions = new ArrayList<>();
+        for (String puzzle : puzzles) bandSolutions.add(band.solve(puzzle));
+        check("Band solver", puzzles, classic, bandSolutions);
+        BandStrategy bandStrategy = new BandStrategy();
+        check("Band strategy", puzzles, classic, solveEach(bandStrategy::perform, puzzles));
+
+        // Scalar unless the vector module is on the class path and the JVM runs with
+        // --add-modules jdk.incubator.vector
+        SequentialSudokuSolver backtracking = new SequentialSudokuSolver(new SolverOptions()
+                .useEliminationStrategy(true)
+                .useNakedSingleStrategy(true)
+                .useHiddenSingleStrategy(true)
+                .useBacktrackingStrategy(true)
+                .BFSDepth(1));
+        SimdBatchSolver simd = new SimdBatchSolver(backtracking);
+        check(simd.isVectorized() ? "Vector batch" : "Scalar batch", puzzles, classic, simd.solve(puzzles).solutions);
+
+        // Every strategy, in the order the scheduler learns and then in the order it froze
+        StrategyScheduler scheduler = new StrategyScheduler();
+        SequentialSudokuSolver scheduled = new SequentialSudokuSolver(new SolverOptions()
+                .useEliminationStrategy(true)
+                .useNakedSingleStrategy(true)
+                .useHiddenSingleStrategy(true)
+                .useSubsetStrategies(true)
+                .useFishStrategy(true)
+                .useBacktrackingStrategy(true)
+                .BFSDepth(1)
+                .scheduler(scheduler));
+        check("Strategy scheduler, learning", puzzles, classic, solveEach(scheduled::solve, puzzles));
+        scheduler.freeze();
+        check("Strategy scheduler, frozen", puzzles, classic, solveEach(scheduled::solve, puzzles));
+        checkPartialProfile(scheduler, puzzles, classic);
+
+        // Four workers whatever the machine, so searches split and the losing subtrees are
+        // cancelled even on one core. Depth 0 splits the search lazily, whenever a worker is idle.
+        ForkJoinPool pool = new ForkJoinPool(4);
+        ConcurrentSudokuSolver concurrent = new ConcurrentSudokuSolver(new SolverOptions()
+                .useEliminationStrategy(true)
+                .useNakedSingleStrategy(true)
+                .useHiddenSingleStrategy(true)
+                .useBacktrackingStrategy(true)
+                .pool(pool));
+        check("Concurrent backtracking, lazy splitting", puzzles, classic, solveEach(concurrent::solve, puzzles));
+
+        // Without the clues of the top band the puzzles have many solutions, so several subtrees
+        // can finish at once and every other one has to be cancelled
+        List<String> open = new ArrayList<>();
+        for (String puzzle : puzzles) open.add(".".repeat(3 * Board.SIZE) + puzzle.substring(3 * Board.SIZE));
+        check("Concurrent backtracking, many solutions", open, classic, solveEach(concurrent::solve, open));
+
+        // Counting proves a puzzle has one solution, several or none: the bundled puzzles have
+        // one, the ones without their top band reach the limit, and the ones given a wrong digit
+        // in an empty cell have none, though no clue rules that digit out
+        List<String> contradicted = new ArrayList<>();
+        for (int k = 0; k < puzzles.size(); ++k) {
+            String puzzle = contradict(puzzles.get(k), bandSolutions.get(k));
+            if (puzzle != null) contradicted.add(puzzle);
+        }
+        checkCounts("Dancing links", puzzle -> dancingLinks.countSolutions(SudokuParser.parseBoard(puzzle), COUNT_LIMIT), puzzles, open, contradicted);
+        checkCounts("Concurrent", puzzle -> concurrent.countSolutions(SudokuParser.parseBoard(puzzle), COUNT_LIMIT), puzzles, open, contradicted);
+        checkCounts("Band solver", puzzle -> band.countSolutions(puzzle, COUNT_LIMIT), puzzles, open, contradicted);
+
+        // A fixed depth expands the BFS frontier inside the tasks instead
+        ConcurrentSudokuSolver frontier = new ConcurrentSudokuSolver(new SolverOptions()
+                .useEliminationStrategy(true)
+                .useNakedSingleStrategy(true)
+                .useHiddenSingleStrategy(true)
+                .useBacktrackingStrategy(true)
+                .BFSDepth(3)
+                .pool(pool));
+        check("Concurrent backtracking, BFS depth 3", puzzles, classic, solveEach(frontier::solve, puzzles));
+
+        // Every engine in the race, so the losers are stopped mid-search
+        ConcurrentSudokuSolver portfolio = new ConcurrentSudokuSolver(new SolverOptions()
+                .useEliminationStrategy(true)
+                .useNakedSingleStrategy(true)
+                .useHiddenSingleStrategy(true)
+                .pool(pool)
+                .portfolio(Arrays.asList(PortfolioStrategy.Engine.values())));
+        check("Portfolio", puzzles, classic, solveEach(portfolio::solve, puzzles));
+
+        // One instance of each facade solving on several threads at once
+        check("Subsets and locked candidates, shared solver", puzzles, classic, solveShared(subsets::solve, puzzles));
+        check("Concurrent backtracking, shared solver", puzzles, classic, solveShared(concurrent::solve, puzzles));
+
+        ParallelBatchSolver parallelBatch = new ParallelBatchSolver(backtracking, pool);
+        check("Parallel batch", puzzles, classic, solutionsOf(parallelBatch.solveAll(puzzles)));
+
+        // Budgets small enough that many puzzles of the batch split their search
+        ConcurrentSudokuSolver promoting = new ConcurrentSudokuSolver(new SolverOptions()
+                .useEliminationStrategy(true)
+                .useNakedSingleStrategy(true)
+                .useHiddenSingleStrategy(true)
+                .useBacktrackingStrategy(true)
+                .pool(pool)
+                .promotionNodes(PROMOTION_NODES));
+        check("Hybrid batch, node budget", puzzles, classic, solutionsOf(new ParallelBatchSolver(promoting).solveAll(puzzles)));
+        ConcurrentSudokuSolver timed = new ConcurrentSudokuSolver(new SolverOptions()
+                .useEliminationStrategy(true)
+                .useNakedSingleStrategy(true)
+                .useHiddenSingleStrategy(true)
+                .useBacktrackingStrategy(true)
+                .pool(pool)
+                .promotionNanos(PROMOTION_NANOS));
+        check("Hybrid batch, time budget", puzzles, classic, solutionsOf(new ParallelBatchSolver(timed).solveAll(puzzles)));
+
+        // Dancing links as the backup, so stragglers are raced by a different search
+        BatchScheduler batchScheduler = new BatchScheduler(backtracking, dancingLinks, pool);
+        for (BatchScheduler.Order order : BatchScheduler.Order.values()) {
+            check("Batch scheduler, " + order, puzzles, classic, batchScheduler.solveAll(puzzles, order).solutions);
+        }
+
+        WideSudokuSolver wide = new WideSudokuSolver();
+        List<String> wideSolutions = new ArrayList<>();
+        for (String puzzle : puzzles) {
+            WideBoard board = SudokuParser.parseWideBoard(puzzle);
+            wideSolutions.add(wide.solve(board) ? SudokuParser.wideBoardToString(board) : null);
+        }
+        check("Wide board, 9x9", puzzles, classic, wideSolutions);
+
+        Random random = new Random(SEED);
+        checkGenerated("Wide board, 16x16", WideUnits.of(4), wide, random);
+        checkGenerated("Wide board, 25x25", WideUnits.of(5), wide, random);
+        checkGenerated("X variant, 9x9", WideUnits.of(Variant.X, 3), wide, random);
+        checkGenerated("X variant, 16x16", WideUnits.of(Variant.X, 4), wide, random);
+        checkGenerated("Windoku", WideUnits.of(Variant.WINDOKU, 3), wide, random);
+        checkGenerated("Jigsaw", WideUnits.jigsaw(JIGSAW_REGIONS), wide, random);
+
+        // A unit set no variant defines: the X diagonals and the Windoku windows together
+        int[][] diagonals = WideUnits.of(Variant.X, 3).units;
+        int[][] windows = WideUnits.of(Variant.WINDOKU, 3).units;
+        int classicUnits = classic.units.length;
+        int[][] combined = Arrays.copyOf(diagonals, diagonals.length + windows.length - classicUnits);
+        System.arraycopy(windows, classicUnits, combined, diagonals.length, windows.length - classicUnits);
+        checkGenerated("Custom units, X and Windoku", WideUnits.of(Board.SIZE, combined), wide, random);
+
+        System.out.println(failures == 0 ? "All engines passed" : failures + " engines failed");
+        System.exit(failures == 0 ? 0 : 1);
+    }
+
+    private static void checkCounts(String name, ToLongFunction<String> counter,
+                                    List<String> unique, List<String> many, List<String> none) {
+        checkCount("Solution count, " + name + ", unique", counter, unique, 1);
+        checkCount("Solution count, " + name + ", several", counter, many, COUNT_LIMIT);
+        checkCount("Solution count, " + name + ", none", counter, none, 0);
+    }
+
+    private static void checkCount(String name, ToLongFunction<String> counter, List<String> puzzles, long expected) {
+        int wrong = 0;
+        for (String puzzle : puzzles) {
+            if (counter.applyAsLong(puzzle) != expected) ++wrong;
+        }
+
+        if (wrong == 0) {
+            System.out.println("PASS " + name + " (" + puzzles.size() + " puzzles)");
+        }
+        else {
+            System.out.println("FAIL " + name + ": " + wrong + " of " + puzzles.size() + " counts are not " + expected);
+            ++failures;
+        }
+    }
+
+    // The puzzle with its first empty cell that admits a wrong digit given that digit, or null if
+    // no empty cell does. A unique puzzle has no solution left afterwards.
+    private static String contradict(String puzzle, String solution) {
+        for (int i = 0; i < Board.CELLS; ++i) {
+            if (puzzle.charAt(i) != '.') continue;
+            for (char digit = '1'; digit <= '9'; ++digit) {
+                if (digit != solution.charAt(i) && !isClueInUnits(puzzle, i, digit)) {
+                    return puzzle.substring(0, i) + digit + puzzle.substring(i + 1);
+                }
+            }
+        }
+        return null;
+    }
+
+    private static boolean isClueInUnits(String puzzle, int index, char digit) {
+        int row = index / Board.SIZE;
+        int col = index % Board.SIZE;
+        for (int j = 0; j < Board.CELLS; ++j) {
+            int r = j / Board.SIZE;
+            int c = j % Board.SIZE;
+            boolean peer = r == row || c == col || (r / 3 == row / 3 && c / 3 == col / 3);
+            if (peer && puzzle.charAt(j) == digit) return true;
+        }
+        return false;
+    }
+
+    // A profile without one strategy, as when an engine gains a strategy after the profile was
+    // saved. The unmeasured strategy runs first and must not get the measured ones skipped. The
+    // one left out has the lowest yield, so the measured ones keep the same best yield to beat.
+    private static void checkPartialProfile(StrategyScheduler learned, List<String> puzzles, WideUnits units) {
+        Map<String, Double> yields = learned.getYields();
+        String missing = null;
+        for (String strategy : yields.keySet()) {
+            if (missing == null || yields.get(strategy) < yields.get(missing)) missing = strategy;
+        }
+        String name = "Strategy scheduler, profile missing " + missing;
+        StrategyScheduler partial = new StrategyScheduler();
+        try {
+            Path file = Files.createTempFile("strategies", ".json");
+            try {
+                learned.save(file.toString());
+                JsonObject profile;
+                try (Reader reader = Files.newBufferedReader(file)) {
+                    profile = new Gson().fromJson(reader, JsonObject.class);
+                }
+                profile.remove(missing);
+                Files.write(file, new Gson().toJson(profile).getBytes(StandardCharsets.UTF_8));
+                partial.load(file.toString());
+            }
+            finally {
+                Files.delete(file);
+            }
+        }
+        catch (IOException e) {
+            System.out.println("FAIL " + name + ": " + e.getMessage());
+            ++failures;
+            return;
+        }
+
+        SequentialSudokuSolver solver = new SequentialSudokuSolver(new SolverOptions()
+                .useEliminationStrategy(true)
+                .useNakedSingleStrategy(true)
+                .useHiddenSingleStrategy(true)
+                .useSubsetStrategies(true)
+                .useFishStrategy(true)
+                .useBacktrackingStrategy(true)
+                .BFSDepth(1)
+                .scheduler(partial));
+        Set<String> expected = new TreeSet<>(learned.getSkipped());
+        expected.remove(missing);
+        if (!partial.getSkipped().equals(expected)) {
+            System.out.println("FAIL " + name + ": skips " + partial.getSkipped() + " instead of " + expected);
+            ++failures;
+            return;
+        }
+        check(name, puzzles, units, solveEach(solver::solve, puzzles));
+    }
+
+    private static List<String> solveEach(Predicate<Board> solver, List<String> puzzles) {
+        List<String> solutions = new ArrayList<>();
+        for (String puzzle : puzzles) solutions.add(solve(solver, puzzle));
+        return solutions;
+    }
+
+    // Every puzzle submitted at once to a few threads of their own, all calling the same solver
+    private static List<String> solveShared(Predicate<Board> solver, List<String> puzzles) {
+        ExecutorService threads = Executors.newFixedThreadPool(SHARING_THREADS);
+        try {
+            List<Future<String>> futures = new ArrayList<>();
+            for (String puzzle : puzzles) futures.add(threads.submit(() -> solve(solver, puzzle)));
+
+            List<String> solutions = new ArrayList<>();
+            for (Future<String> future : futures) solutions.add(future.get());
+            return solutions;
+        }
+        catch (InterruptedException | ExecutionException e) {
+            throw new RuntimeException(e);
+        }
+        finally {
+            threads.shutdown();
+        }
+    }
+
+    private static List<String> solutionsOf(ParallelBatchSolver.Batch batch) {
+        List<String> solutions = new ArrayList<>();
+        for (ParallelBatchSolver.Result result : batch.results) solutions.add(result.solution);
+        return solutions;
+    }
+
+    private static String solve(Predicate<Board> solver, String puzzle) {
+        Board board = SudokuParser.parseBoard(puzzle);
+        return solver.test(board) ? SudokuParser.boardToString(board) : null;
+    }
+
+    // Puzzles cut from one solved grid of the units, its digits relabelled for each puzzle
+    private static void checkGenerated(String name, WideUnits units, WideSudokuSolver solver, Random random) {
+        WideBoard grid = new WideBoard(units);
+        if (!solver.solve(grid)) {
+            System.out.println("FAIL " + name + ": no solution for the empty grid");
+            ++failures;
+            return;
+        }
+
+        List<String> puzzles = new ArrayList<>();
+        List<String> solutions = new ArrayList<>();
+        for (int k = 0; k < GENERATED_PUZZLES; ++k) {
+            int[] digits = new int[units.size + 1];
+            for (int d = 1; d <= units.size; ++d) digits[d] = d;
+            for (int d = units.size; d > 1; --d) {
+                int j = 1 + random.nextInt(d);
+                int swap = digits[d];
+                digits[d] = digits[j];
+                digits[j] = swap;
+            }
+
+            WideBoard board = new WideBoard(units);
+            for (int i = 0; i < units.cells; ++i) {
+                if (random.nextInt(100) < GIVEN_PERCENT) board.setNumber(i, digits[grid.getNumber(i)]);
+            }
+            puzzles.add(SudokuParser.wideBoardToString(board));
+            solutions.add(solver.solve(board) ? SudokuParser.wideBoardToString(board) : null);
+        }
+        check(name, puzzles, units, solutions);
+    }
+
+    private static void check(String name, List<String> puzzles, WideUnits units, List<String> solutions) {
+        int wrong = 0;
+        for (int k = 0; k < puzzles.size(); ++k) {
+            if (!isValid(puzzles.get(k), solutions.get(k), units)) ++wrong;
+        }
+
+        if (wrong == 0) {
+            System.out.println("PASS " + name + " (" + puzzles.size() + " puzzles)");
+        }
+        else {
+            System.out.println("FAIL " + name + ": " + wrong + " of " + puzzles.size() + " solutions wrong or missing");
+            ++failures;
+        }
+    }
+
+    // False for a missing solution, a changed clue, an empty cell or a digit repeated in a unit
+    private static boolean isValid(String puzzle, String solution, WideUnits units) {
+        if (solution == null || solution.length() != puzzle.length()) return false;
+        for (int i = 0; i < puzzle.length(); ++i) {
+            char clue = puzzle.charAt(i);
+            if (clue != '.' && Character.toUpperCase(clue) != Character.toUpperCase(solution.charAt(i))) return false;
+        }
+
+        WideBoard board;
+        try {
+            board = SudokuParser.parseWideBoard(solution, units);
+        }
+        catch (IllegalStateException e) {
+            return false;
+        }
+        for (int i = 0; i < units.cells; ++i) {
+            if (board.getNumber(i) == 0) return false;
+        }
+        for (int[] unit : units.units) {
+            long seen = 0;
+            for (int cell : unit) {
+                long bit = WideBoard.bit(board.getNumber(cell));
+                if ((seen & bit) != 0) return false;
+                seen |= bit;
+            }
+        }
+        return true;
+    }
+
+    private static List<String> readPuzzlesFromFile(String fileName) {
+        List<String> puzzles = new ArrayList<>();
+        try (BufferedReader br = new BufferedReader(new FileReader(fileName))) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                if (!line.trim().isEmpty()) {
+                    puzzles.add(line.trim());
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Error reading input file: " + e.getMessage());
+            System.exit(1);
+        }
+        return puzzles;
+    }
+}
@@ -1,12 +1,21 @@
 package app;
 
+import com.google.gson.Gson;
 import solver.ConcurrentSudokuSolver;
 import solver.com.*;
 import solver.utils.*;
 import solver.SequentialSudokuSolver;
+import solver.SolverOptions;
+import solver.batch.BatchScheduler;
+import solver.batch.ParallelBatchSolver;
+import solver.batch.SimdBatchSolver;
+import solver.fast.BandSolver;
+import solver.strategies.PortfolioStrategy;
+import solver.strategies.StrategyScheduler;
 
 import java.io.*;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 public class SudokuSolverApp {
@@ -17,6 +26,13 @@ public class SudokuSolverApp {
 
         String sequentialOutput = "/home/buronsuave/IdeaProjects/SudokuSolver/res/sequential_results.txt";
         String concurrentOutput = "/home/buronsuave/IdeaProjects/SudokuSolver/res/concurrent_results.txt";
+        String parallelBatchOutput = "/home/buronsuave/IdeaProjects/SudokuSolver/res/parallel_batch_results.txt";
+        String hybridBatchOutput = "/home/buronsuave/IdeaProjects/SudokuSolver/res/hybrid_batch_results.txt";
+        // Strategy order learned by the first run, reused frozen by the next ones
+        String strategyProfile = "/home/buronsuave/IdeaProjects/SudokuSolver/res/strategy_profile.json";
+        StrategyScheduler scheduler = loadStrategyProfile(strategyProfile);
+        // Engines raced by the portfolio solver, as a JSON array of names
+        List<PortfolioStrategy.Engine> portfolio = loadPortfolio("/home/buronsuave/IdeaProjects/SudokuSolver/res/portfolio.json");
 
         List<Long> sequentialTimes = new ArrayList<>();
         List<Long> concurrentTimes = new ArrayList<>();
@@ -24,18 +40,61 @@ public class SudokuSolverApp {
 
         // Solve sequentially and write results
         System.out.println("Starting sequential solver");
-        long sequentialTotalTime = solveSequentially(puzzles, sequentialTimes, sequentialOutput);
+        long sequentialTotalTime = solveSequentially(puzzles, sequentialTimes, sequentialOutput, scheduler);
         System.out.println("Finished sequential solver");
+        saveStrategyProfile(strategyProfile, scheduler);
 
         // Solve concurrently and write results
         System.out.println("Starting concurrent solvers");
         long concurrentTotalTime = solveConcurrently(puzzles, concurrentTimes, concurrentOutput);
         System.out.println("Finished concurrent solvers");
 
+        // Race the portfolio engines on every puzzle
+        System.out.println("Starting portfolio solver");
+        long portfolioTotalNanos = solveWithPortfolio(puzzles, portfolio, scheduler);
+        System.out.println("Finished portfolio solver");
+
+        // Solve several puzzles at a time, each one sequentially, timing the whole run
+        System.out.println("Starting parallel batch solver");
+        long parallelBatchTotalNanos = solveInParallel(puzzles, parallelBatchOutput, scheduler);
+        System.out.println("Finished parallel batch solver");
+
+        // Same, but puzzles still open after a few hundred guesses spread over idle workers
+        System.out.println("Starting hybrid batch solver");
+        long hybridBatchTotalNanos = solveInHybridBatch(puzzles, hybridBatchOutput, scheduler);
+        System.out.println("Finished hybrid batch solver");
+
+        // Same batch in given order, with backups for stragglers, and shortest predicted first
+        System.out.println("Starting scheduled batch solver");
+        compareBatchSchedules(puzzles, scheduler);
+        System.out.println("Finished scheduled batch solver");
+
+        // Solve with the band solver, timing the whole run since single puzzles take microseconds
+        System.out.println("Starting band solver");
+        long bandTotalNanos = solveWithBandSolver(puzzles);
+        System.out.println("Finished band solver");
+
+        // Count the solutions of every puzzle up to two, proving each one unique
+        System.out.println("Starting solution counter");
+        long countTotalNanos = countSolutions(puzzles, scheduler);
+        System.out.println("Finished solution counter");
+
+        // Solve the whole file as one batch; vectorized with the vector module on the class path and
+        // --add-modules jdk.incubator.vector
+        System.out.println("Starting batch solver");
+        long batchTotalNanos = solveAsBatch(puzzles);
+        System.out.println("Finished batch solver");
+
         // Print performance summary
         System.out.println("All puzzles solved. Results written to files.");
         System.out.println("Sequential performance: " + (1_000 * puzzles.size() / sequentialTotalTime) + " sudokus/second");
         System.out.println("Concurrent performance: " + (1_000 * puzzles.size() / concurrentTotalTime) + " sudokus/second");
+        System.out.println("Portfolio performance: " + (1_000_000_000L * puzzles.size() / portfolioTotalNanos) + " sudokus/second");
+        System.out.println("Parallel batch performance: " + (1_000_000_000L * puzzles.size() / parallelBatchTotalNanos) + " sudokus/second");
+        System.out.println("Hybrid batch performance: " + (1_000_000_000L * puzzles.size() / hybridBatchTotalNanos) + " sudokus/second");
+        System.out.println("Band solver performance: " + (1_000_000_000L * puzzles.size() / bandTotalNanos) + " sudokus/second");
+        System.out.println("Solution counting performance: " + (1_000_000_000L * puzzles.size() / countTotalNanos) + " sudokus/second");
+        System.out.println("Batch solver performance: " + (1_000_000_000L * puzzles.size() / batchTotalNanos) + " sudokus/second");
 
         writeTimesToFile("/home/buronsuave/IdeaProjects/SudokuSolver/res/sequential_times.txt", sequentialTimes);
         writeTimesToFile("/home/buronsuave/IdeaProjects/SudokuSolver/res/concurrent_times.txt", concurrentTimes);
@@ -70,12 +129,49 @@ public class SudokuSolverApp {
         }
     }
 
-    private static long solveSequentially(List<String> puzzles, List<Long> times, String outputFile) {
-        SequentialSudokuSolver solver = new SequentialSudokuSolver(
-                true,
-                true,
-                true,
-                7);
+    private static StrategyScheduler loadStrategyProfile(String fileName) {
+        StrategyScheduler scheduler = new StrategyScheduler();
+        if (new File(fileName).exists()) {
+            try {
+                scheduler.load(fileName);
+            } catch (IOException e) {
+                System.err.println("Error reading strategy profile, learning a new one: " + e.getMessage());
+            }
+        }
+        return scheduler;
+    }
+
+    private static List<PortfolioStrategy.Engine> loadPortfolio(String fileName) {
+        List<PortfolioStrategy.Engine> engines = Arrays.asList(PortfolioStrategy.Engine.values());
+        if (!new File(fileName).exists()) return engines;
+        try (FileReader reader = new FileReader(fileName)) {
+            String[] names = new Gson().fromJson(reader, String[].class);
+            engines = PortfolioStrategy.parseEngines(String.join(",", names));
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Error reading portfolio, racing every engine: " + e.getMessage());
+        }
+        return engines.isEmpty() ? Arrays.asList(PortfolioStrategy.Engine.values()) : engines;
+    }
+
+    private static void saveStrategyProfile(String fileName, StrategyScheduler scheduler) {
+        scheduler.getYields().forEach((name, yield) ->
+                System.out.println(name + " yield: " + String.format("%.3f", yield) + " eliminations/us"));
+        if (scheduler.isFrozen()) return;
+        try {
+            scheduler.save(fileName);
+        } catch (IOException e) {
+            System.err.println("Error writing strategy profile: " + e.getMessage());
+        }
+    }
+
+    private static long solveSequentially(List<String> puzzles, List<Long> times, String outputFile, StrategyScheduler scheduler) {
+        SequentialSudokuSolver solver = new SequentialSudokuSolver(new SolverOptions()
+                .useEliminationStrategy(true)
+                .useNakedSingleStrategy(true)
+                .useHiddenSingleStrategy(true)
+                .useBacktrackingStrategy(true)
+                .BFSDepth(7)
+                .scheduler(scheduler));
 
         long totalTime = 0;
 
@@ -100,10 +196,19 @@ public class SudokuSolverApp {
         } catch (IOException e) {
             System.err.println("Error writing to sequential results file: " + e.getMessage());
         }
+
+        solver.getEliminations().forEach((name, count) -> System.out.println(name + " eliminations: " + count));
+        System.out.println("Search nodes: " + solver.getSearchNodes());
         return totalTime;
     }
 
     private static long solveConcurrently(List<String> puzzles, List<Long> times, String outputFile) {
+        // One solver for every puzzle, so its pool threads are started once
+        ConcurrentSudokuSolver solver = new ConcurrentSudokuSolver(new SolverOptions()
+                .useEliminationStrategy(true)
+                .useNakedSingleStrategy(true)
+                .useBacktrackingStrategy(true));
+
         long totalTime = 0;
 
         try (BufferedWriter writer = new BufferedWriter(new FileWriter(outputFile))) {
@@ -113,11 +218,6 @@ public class SudokuSolverApp {
                 System.out.println("Solving concurrent puzzle " + (i + 1) + " of " + puzzles.size());
 
                 Board board = SudokuParser.parseBoard(puzzles.get(i));
-                ConcurrentSudokuSolver solver = new ConcurrentSudokuSolver(
-                        true,
-                        false,
-                        true,
-                        7);
 
                 long startTime = System.currentTimeMillis();
                 boolean solved = solver.solve(board);
@@ -133,9 +233,171 @@ public class SudokuSolverApp {
         } catch (IOException e) {
             System.err.println("Error writing to sequential results file: " + e.getMessage());
         }
+
+        solver.getEliminations().forEach((name, count) -> System.out.println(name + " eliminations (concurrent): " + count));
+        System.out.println("Search nodes (concurrent): " + solver.getSearchNodes());
         return totalTime;
     }
 
+    private static long solveInParallel(List<String> puzzles, String outputFile, StrategyScheduler scheduler) {
+        // Same configuration as the sequential run, so the difference is only the parallelism
+        ParallelBatchSolver solver = new ParallelBatchSolver(new SequentialSudokuSolver(new SolverOptions()
+                .useEliminationStrategy(true)
+                .useNakedSingleStrategy(true)
+                .useHiddenSingleStrategy(true)
+                .useBacktrackingStrategy(true)
+                .BFSDepth(7)
+                .scheduler(scheduler)));
+
+        return solveAsParallelBatch(solver, puzzles, outputFile, "Parallel batch");
+    }
+
+    private static long solveInHybridBatch(List<String> puzzles, String outputFile, StrategyScheduler scheduler) {
+        // Each puzzle branches 256 times on its own before its search may split, which keeps
+        // the throughput of the plain batch on the benchmark
+        ParallelBatchSolver solver = new ParallelBatchSolver(new ConcurrentSudokuSolver(new SolverOptions()
+                .useEliminationStrategy(true)
+                .useNakedSingleStrategy(true)
+                .useHiddenSingleStrategy(true)
+                .useBacktrackingStrategy(true)
+                .scheduler(scheduler)
+                .promotionNodes(256)));
+
+        return solveAsParallelBatch(solver, puzzles, outputFile, "Hybrid batch");
+    }
+
+    private static void compareBatchSchedules(List<String> puzzles, StrategyScheduler scheduler) {
+        SequentialSudokuSolver solver = new SequentialSudokuSolver(new SolverOptions()
+                .useEliminationStrategy(true)
+                .useNakedSingleStrategy(true)
+                .useHiddenSingleStrategy(true)
+                .useBacktrackingStrategy(true)
+                .scheduler(scheduler));
+        // Exact cover instead of backtracking, so stragglers of one are rarely hard for the other
+        SequentialSudokuSolver backup = new SequentialSudokuSolver(new SolverOptions()
+                .useEliminationStrategy(true)
+                .useNakedSingleStrategy(true)
+                .useHiddenSingleStrategy(true)
+                .useDancingLinksStrategy(true)
+                .scheduler(scheduler));
+
+        // Each run changes one thing against FIFO, after a few discarded passes so none of them
+        // pays for the warm-up. Shortest first only helps batches mixing easy and hard puzzles,
+        // see BatchScheduler.Order.
+        for (int i = 0; i < 3; ++i) new BatchScheduler(solver, backup).solveAll(puzzles, BatchScheduler.Order.SHORTEST_FIRST);
+        BatchScheduler.Report fifo = new BatchScheduler(solver, null).solveAll(puzzles, BatchScheduler.Order.FIFO);
+        BatchScheduler.Report backedUp = new BatchScheduler(solver, backup).solveAll(puzzles, BatchScheduler.Order.FIFO);
+        BatchScheduler.Report shortestFirst = new BatchScheduler(solver, null).solveAll(puzzles, BatchScheduler.Order.SHORTEST_FIRST);
+
+        printBatchReport("FIFO order", fifo, null);
+        printBatchReport("FIFO order with backups", backedUp, fifo);
+        printBatchReport("SHORTEST_FIRST order", shortestFirst, fifo);
+    }
+
+    private static void printBatchReport(String name, BatchScheduler.Report report, BatchScheduler.Report fifo) {
+        System.out.println(name + ": p50 " + report.getP50() / 1_000_000 + " ms, p99 " + report.getP99() / 1_000_000
+                + " ms, makespan " + report.makespan / 1_000_000 + " ms, " + report.speculated + " backups, " + report.backupWins + " won");
+        if (fifo == null) return;
+        System.out.println("  against FIFO: p50 " + change(fifo.getP50(), report.getP50())
+                + ", p99 " + change(fifo.getP99(), report.getP99())
+                + ", makespan " + change(fifo.makespan, report.makespan));
+    }
+
+    // Relative change from before to after, negative when it got faster
+    private static String change(long before, long after) {
+        return String.format("%+.1f%%", 100.0 * (after - before) / Math.max(1, before));
+    }
+
+    private static long solveAsParallelBatch(ParallelBatchSolver solver, List<String> puzzles, String outputFile, String name) {
+        ParallelBatchSolver.Batch batch = solver.solveAll(puzzles);
+
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(outputFile))) {
+            writer.write("index\tsolved?\tsolution\ttime\n");
+            for (int i = 0; i < batch.results.size(); i++) {
+                ParallelBatchSolver.Result result = batch.results.get(i);
+                writer.write(String.format("%d\t%s\t%s\t%d\n", i, result.isSolved(), result.solution, result.nanos / 1_000_000));
+            }
+        } catch (IOException e) {
+            System.err.println("Error writing to " + name.toLowerCase() + " results file: " + e.getMessage());
+        }
+
+        System.out.println(name + " solver on " + solver.getParallelism() + " workers: "
+                + String.format("%.2f", batch.getPuzzlesPerSecond()) + " sudokus/second");
+        return Math.max(1, batch.nanos);
+    }
+
+    private static long solveWithPortfolio(List<String> puzzles, List<PortfolioStrategy.Engine> portfolio, StrategyScheduler scheduler) {
+        ConcurrentSudokuSolver solver = new ConcurrentSudokuSolver(new SolverOptions()
+                .useEliminationStrategy(true)
+                .useNakedSingleStrategy(true)
+                .useHiddenSingleStrategy(true)
+                .scheduler(scheduler)
+                .portfolio(portfolio));
+        int unsolved = 0;
+
+        long startTime = System.nanoTime();
+        for (String puzzle : puzzles) {
+            if (!solver.solve(SudokuParser.parseBoard(puzzle))) ++unsolved;
+        }
+        long elapsedTime = Math.max(1, System.nanoTime() - startTime);
+
+        if (unsolved > 0) System.out.println("Portfolio found no solution for " + unsolved + " puzzles");
+        solver.getPortfolioWins().forEach((name, wins) -> System.out.println(name + " wins (portfolio): " + wins));
+        return elapsedTime;
+    }
+
+    private static long solveWithBandSolver(List<String> puzzles) {
+        BandSolver solver = new BandSolver();
+        int unsolved = 0;
+
+        long startTime = System.nanoTime();
+        for (String puzzle : puzzles) {
+            if (solver.solve(puzzle) == null) ++unsolved;
+        }
+        long elapsedTime = Math.max(1, System.nanoTime() - startTime);
+
+        if (unsolved > 0) System.out.println("Band solver found no solution for " + unsolved + " puzzles");
+        return elapsedTime;
+    }
+
+    private static long countSolutions(List<String> puzzles, StrategyScheduler scheduler) {
+        SequentialSudokuSolver solver = new SequentialSudokuSolver(new SolverOptions()
+                .useEliminationStrategy(true)
+                .useNakedSingleStrategy(true)
+                .useHiddenSingleStrategy(true)
+                .useDancingLinksStrategy(true)
+                .scheduler(scheduler));
+        int[] counts = new int[3];
+
+        long startTime = System.nanoTime();
+        for (String puzzle : puzzles) {
+            ++counts[(int) solver.countSolutions(SudokuParser.parseBoard(puzzle), 2)];
+        }
+        long elapsedTime = Math.max(1, System.nanoTime() - startTime);
+
+        System.out.println("Solution counter: " + counts[1] + " unique, " + counts[2] + " with several, " + counts[0] + " with none");
+        return elapsedTime;
+    }
+
+    private static long solveAsBatch(List<String> puzzles) {
+        SimdBatchSolver solver = new SimdBatchSolver(new SequentialSudokuSolver(new SolverOptions()
+                .useEliminationStrategy(true)
+                .useNakedSingleStrategy(true)
+                .useHiddenSingleStrategy(true)
+                .useBacktrackingStrategy(true)
+                .BFSDepth(7)));
+
+        long startTime = System.nanoTime();
+        SimdBatchSolver.Batch batch = solver.solve(puzzles);
+        long elapsedTime = Math.max(1, System.nanoTime() - startTime);
+
+        long unsolved = batch.solutions.stream().filter(s -> s == null).count();
+        System.out.println("Batch solver " + (solver.isVectorized() ? "vectorized" : "scalar")
+                + ", " + batch.fallbackCount + " puzzles needed search"
+                + (unsolved > 0 ? ", no solution for " + unsolved : ""));
+        return elapsedTime;
+    }
+
     static class SolverResult {
         final int index;
         final boolean solved;
@@ -4,8 +4,11 @@ import com.google.gson.JsonArray;
 import gui.LogPanel;
 import gui.ResultsPanel;
 import gui.SetupPanel;
+import solver.strategies.PortfolioStrategy;
+
 import javax.swing.*;
 import java.awt.*;
+import java.util.List;
 
 public class SudokuSolverGraphicApp extends JFrame {
     private SetupPanel setupPanel;
@@ -35,12 +38,22 @@ public class SudokuSolverGraphicApp extends JFrame {
             int bfsDepthS,
             boolean enableEliminationS,
             boolean enableNakedS,
+            boolean enableHiddenS,
+            boolean enableSubsetS,
+            boolean enableFishS,
             boolean enableBacktrackingS,
+            boolean enableDancingLinksS,
             boolean enableConcurrent,
             int bfsDepthC,
             boolean enableEliminationC,
             boolean enableNakedC,
+            boolean enableHiddenC,
+            boolean enableSubsetC,
+            boolean enableFishC,
             boolean enableBacktrackingC,
+            boolean enableDancingLinksC,
+            List<PortfolioStrategy.Engine> portfolioC,
+            boolean enableParallelBatch,
             boolean isSingleTest,
             int numberTests,
             String test
@@ -54,12 +67,22 @@ public class SudokuSolverGraphicApp extends JFrame {
                 bfsDepthS,
                 enableEliminationS,
                 enableNakedS,
+                enableHiddenS,
+                enableSubsetS,
+                enableFishS,
                 enableBacktrackingS,
+                enableDancingLinksS,
                 enableConcurrent,
                 bfsDepthC,
                 enableEliminationC,
                 enableNakedC,
+                enableHiddenC,
+                enableSubsetC,
+                enableFishC,
                 enableBacktrackingC,
+                enableDancingLinksC,
+                portfolioC,
+                enableParallelBatch,
                 isSingleTest,
                 numberTests,
                 test);
@@ -70,9 +93,9 @@ public class SudokuSolverGraphicApp extends JFrame {
         logPanel.run();
     }
 
-    public void showResults(JsonArray sequentialResults, JsonArray concurrentResults) {
+    public void showResults(JsonArray sequentialResults, JsonArray concurrentResults, JsonArray parallelBatchResults, long parallelBatchTime) {
         logPanel.setVisible(false);
-        resultsPanel = new ResultsPanel(this, sequentialResults, concurrentResults);
+        resultsPanel = new ResultsPanel(this, sequentialResults, concurrentResults, parallelBatchResults, parallelBatchTime);
         setSize(new Dimension(1600, 525));
         add(resultsPanel);
     }
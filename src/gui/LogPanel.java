@@ -7,7 +7,10 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
 import solver.ConcurrentSudokuSolver;
 import solver.SequentialSudokuSolver;
+import solver.SolverOptions;
+import solver.batch.ParallelBatchSolver;
 import solver.com.Board;
+import solver.strategies.PortfolioStrategy;
 import solver.utils.SudokuParser;
 
 import javax.swing.*;
@@ -23,17 +26,29 @@ public class LogPanel extends JPanel {
     protected int bfsDepthS;
     protected boolean enableEliminationS;
     protected boolean enableNakedS;
+    protected boolean enableHiddenS;
+    protected boolean enableSubsetS;
+    protected boolean enableFishS;
     protected boolean enableBacktrackingS;
+    protected boolean enableDancingLinksS;
     protected boolean enableConcurrent;
     protected int bfsDepthC;
     protected boolean enableEliminationC;
     protected boolean enableNakedC;
+    protected boolean enableHiddenC;
+    protected boolean enableSubsetC;
+    protected boolean enableFishC;
     protected boolean enableBacktrackingC;
+    protected boolean enableDancingLinksC;
+    protected List<PortfolioStrategy.Engine> portfolioC;
+    protected boolean enableParallelBatch;
     protected boolean isSingleTest;
     protected int numberTests;
     protected String test;
     private JsonArray sequentialResults;
     private JsonArray concurrentResults;
+    private JsonArray parallelBatchResults;
+    private long parallelBatchTime;
 
     public LogPanel(
             SudokuSolverGraphicApp context,
@@ -41,12 +56,22 @@ public class LogPanel extends JPanel {
             int bfsDepthS,
             boolean enableEliminationS,
             boolean enableNakedS,
+            boolean enableHiddenS,
+            boolean enableSubsetS,
+            boolean enableFishS,
             boolean enableBacktrackingS,
+            boolean enableDancingLinksS,
             boolean enableConcurrent,
             int bfsDepthC,
             boolean enableEliminationC,
             boolean enableNakedC,
+            boolean enableHiddenC,
+            boolean enableSubsetC,
+            boolean enableFishC,
             boolean enableBacktrackingC,
+            boolean enableDancingLinksC,
+            List<PortfolioStrategy.Engine> portfolioC,
+            boolean enableParallelBatch,
             boolean isSingleTest,
             int numberTests,
             String test) {
@@ -56,12 +81,22 @@ public class LogPanel extends JPanel {
         this.bfsDepthS = bfsDepthS;
         this.enableEliminationS = enableEliminationS;
         this.enableNakedS = enableNakedS;
+        this.enableHiddenS = enableHiddenS;
+        this.enableSubsetS = enableSubsetS;
+        this.enableFishS = enableFishS;
         this.enableBacktrackingS = enableBacktrackingS;
+        this.enableDancingLinksS = enableDancingLinksS;
         this.enableConcurrent = enableConcurrent;
         this.bfsDepthC = bfsDepthC;
         this.enableEliminationC = enableEliminationC;
         this.enableNakedC = enableNakedC;
+        this.enableHiddenC = enableHiddenC;
+        this.enableSubsetC = enableSubsetC;
+        this.enableFishC = enableFishC;
         this.enableBacktrackingC = enableBacktrackingC;
+        this.enableDancingLinksC = enableDancingLinksC;
+        this.portfolioC = portfolioC;
+        this.enableParallelBatch = enableParallelBatch;
         this.isSingleTest = isSingleTest;
         this.numberTests = numberTests;
         this.test = test;
@@ -88,30 +123,35 @@ public class LogPanel extends JPanel {
         new SolverWorker(
                 enableSequential,
                 enableConcurrent,
+                enableParallelBatch,
                 puzzles,
                 new ArrayList<>(),
                 "/home/buronsuave/IdeaProjects/SudokuSolver/res/sequential_results.json",
                 new ArrayList<>(),
-                "/home/buronsuave/IdeaProjects/SudokuSolver/res/concurrent_results.json"
+                "/home/buronsuave/IdeaProjects/SudokuSolver/res/concurrent_results.json",
+                "/home/buronsuave/IdeaProjects/SudokuSolver/res/parallel_batch_results.json"
         ).execute();
     }
 
     private class SolverWorker extends SwingWorker<Void, String> {
-        private boolean enableSequential, enableConcurrent;
+        private boolean enableSequential, enableConcurrent, enableParallelBatch;
         private List<String> puzzles;
         private List<Long> sequentialTimes, concurrentTimes;
-        private String sequentialOutput, concurrentOutput;
+        private String sequentialOutput, concurrentOutput, parallelBatchOutput;
 
         public SolverWorker(
-                boolean enableSequential, boolean enableConcurrent,
-                List<String> puzzles, List<Long> sequentialTimes, String sequentialOutput, List<Long> concurrentTimes, String concurrentOutput) {
+                boolean enableSequential, boolean enableConcurrent, boolean enableParallelBatch,
+                List<String> puzzles, List<Long> sequentialTimes, String sequentialOutput, List<Long> concurrentTimes, String concurrentOutput,
+                String parallelBatchOutput) {
             this.enableSequential = enableSequential;
             this.enableConcurrent = enableConcurrent;
+            this.enableParallelBatch = enableParallelBatch;
             this.puzzles = puzzles;
             this.sequentialTimes = sequentialTimes;
             this.sequentialOutput = sequentialOutput;
             this.concurrentTimes = concurrentTimes;
             this.concurrentOutput = concurrentOutput;
+            this.parallelBatchOutput = parallelBatchOutput;
         }
 
         @Override
@@ -136,7 +176,16 @@ public class LogPanel extends JPanel {
                 publish("Finished concurrent solver in " + totalTime + " ms.\n");
             }
 
-            context.showResults(sequentialResults, concurrentResults);
+            if (enableParallelBatch) {
+                publish("Starting parallel batch solver...\n");
+                parallelBatchTime = solveInParallel(
+                        puzzles,
+                        parallelBatchOutput
+                );
+                publish("Finished parallel batch solver in " + parallelBatchTime + " ms.\n");
+            }
+
+            context.showResults(sequentialResults, concurrentResults, parallelBatchResults, parallelBatchTime);
             return null;
         }
 
@@ -181,11 +230,15 @@ public class LogPanel extends JPanel {
             List<Long> times,
             String outputFile
             ) {
-        SequentialSudokuSolver solver = new SequentialSudokuSolver(
-                this.enableEliminationS,
-                this.enableNakedS,
-                this.enableBacktrackingS,
-                this.bfsDepthS);
+        SequentialSudokuSolver solver = new SequentialSudokuSolver(new SolverOptions()
+                .useEliminationStrategy(this.enableEliminationS)
+                .useNakedSingleStrategy(this.enableNakedS)
+                .useHiddenSingleStrategy(this.enableHiddenS)
+                .useSubsetStrategies(this.enableSubsetS)
+                .useFishStrategy(this.enableFishS)
+                .useBacktrackingStrategy(this.enableBacktrackingS)
+                .useDancingLinksStrategy(this.enableDancingLinksS)
+                .BFSDepth(this.bfsDepthS));
 
         long totalTime = 0;
         sequentialResults = new JsonArray();
@@ -211,6 +264,10 @@ public class LogPanel extends JPanel {
             sequentialResults.add(object);
         }
 
+        solver.getEliminations().forEach((name, count) ->
+                System.out.print(name + " eliminations (sequential): " + count + "\n"));
+        System.out.print("Search nodes (sequential): " + solver.getSearchNodes() + "\n");
+
         writeResultToJsonFile(outputFile, sequentialResults);
         return totalTime;
     }
@@ -223,17 +280,23 @@ public class LogPanel extends JPanel {
 
         long totalTime = 0;
         concurrentResults = new JsonArray();
+        // One solver for every puzzle, so its pool threads are started once
+        ConcurrentSudokuSolver solver = new ConcurrentSudokuSolver(new SolverOptions()
+                .useEliminationStrategy(this.enableEliminationC)
+                .useNakedSingleStrategy(this.enableNakedC)
+                .useHiddenSingleStrategy(this.enableHiddenC)
+                .useSubsetStrategies(this.enableSubsetC)
+                .useFishStrategy(this.enableFishC)
+                .useBacktrackingStrategy(this.enableBacktrackingC)
+                .useDancingLinksStrategy(this.enableDancingLinksC)
+                .BFSDepth(this.bfsDepthC)
+                .portfolio(this.portfolioC));
 
         for (int i = 0; i < puzzles.size(); i++) {
             System.out.print("Solving concurrent puzzle " + (i + 1) + " of " + puzzles.size() + "\n");
             JsonObject object = new JsonObject();
 
             Board board = SudokuParser.parseBoard(puzzles.get(i));
-            ConcurrentSudokuSolver solver = new ConcurrentSudokuSolver(
-                    this.enableEliminationC,
-                    this.enableNakedC,
-                    this.enableBacktrackingC,
-                    this.bfsDepthC);
 
             long startTime = System.currentTimeMillis();
             boolean solved = solver.solve(board);
@@ -251,10 +314,53 @@ public class LogPanel extends JPanel {
             concurrentResults.add(object);
         }
 
+        solver.getEliminations().forEach((name, count) ->
+                System.out.print(name + " eliminations (concurrent): " + count + "\n"));
+        System.out.print("Search nodes (concurrent): " + solver.getSearchNodes() + "\n");
+        solver.getPortfolioWins().forEach((name, wins) ->
+                System.out.print(name + " wins (portfolio): " + wins + "\n"));
+
         writeResultToJsonFile(outputFile, concurrentResults);
         return totalTime;
     }
 
+    // Times are per puzzle as before, but the returned total is the wall time of the whole batch,
+    // since several puzzles are solved at once
+    private long solveInParallel(
+            List<String> puzzles,
+            String outputFile
+            ) {
+        ParallelBatchSolver solver = new ParallelBatchSolver(new SequentialSudokuSolver(new SolverOptions()
+                .useEliminationStrategy(this.enableEliminationS)
+                .useNakedSingleStrategy(this.enableNakedS)
+                .useHiddenSingleStrategy(this.enableHiddenS)
+                .useSubsetStrategies(this.enableSubsetS)
+                .useFishStrategy(this.enableFishS)
+                .useBacktrackingStrategy(this.enableBacktrackingS)
+                .useDancingLinksStrategy(this.enableDancingLinksS)
+                .BFSDepth(this.bfsDepthS)));
+
+        System.out.print("Solving " + puzzles.size() + " puzzles on " + solver.getParallelism() + " workers\n");
+        ParallelBatchSolver.Batch batch = solver.solveAll(puzzles);
+        parallelBatchResults = new JsonArray();
+
+        for (int i = 0; i < puzzles.size(); i++) {
+            ParallelBatchSolver.Result result = batch.results.get(i);
+            JsonObject object = new JsonObject();
+            object.addProperty("index", i);
+            object.addProperty("solved", result.isSolved());
+            object.addProperty("puzzle", puzzles.get(i));
+            object.addProperty("solution", result.solution);
+            object.addProperty("time", result.nanos / 1_000_000);
+            parallelBatchResults.add(object);
+        }
+
+        System.out.print("Parallel batch: " + String.format("%.2f", batch.getPuzzlesPerSecond()) + " sudokus/second\n");
+
+        writeResultToJsonFile(outputFile, parallelBatchResults);
+        return Math.max(1, batch.nanos / 1_000_000);
+    }
+
     private void writeResultToJsonFile(String filename, JsonArray array) {
         Gson gson = new GsonBuilder().setPrettyPrinting().create();
         try (FileWriter writer = new FileWriter(filename)) {
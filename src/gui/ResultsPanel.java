@@ -15,19 +15,25 @@ import java.awt.*;
 public class ResultsPanel extends JPanel {
     private JsonArray sequentialResults;
     private JsonArray concurrentResults;
+    // Null if the parallel batch solver did not run
+    private JsonArray parallelBatchResults;
+    private long parallelBatchTime;
 
     private ChartPanel graphPanel;
     private int currentGraph = 0;  // 0 for accumulative, 1 for index-wise comparison
     private JTextField indexField;
     private JLabel totalSequentialTimeLabel, totalConcurrentTimeLabel,
             sequentialRateLabel, concurrentRateLabel,
-            sequentialTimeLabel, concurrentTimeLabel;
+            sequentialTimeLabel, concurrentTimeLabel,
+            parallelBatchRateLabel;
     private SudokuPanel puzzlePanel, solutionPanel;
     private SudokuSolverGraphicApp context;
 
-    public ResultsPanel(SudokuSolverGraphicApp context, JsonArray sequentialResults, JsonArray concurrentResults) {
+    public ResultsPanel(SudokuSolverGraphicApp context, JsonArray sequentialResults, JsonArray concurrentResults, JsonArray parallelBatchResults, long parallelBatchTime) {
         this.sequentialResults = sequentialResults;
         this.concurrentResults = concurrentResults;
+        this.parallelBatchResults = parallelBatchResults;
+        this.parallelBatchTime = parallelBatchTime;
         this.context = context;
 
         setLayout(new GridLayout(1, 4)); // 4 columns
@@ -42,13 +48,14 @@ public class ResultsPanel extends JPanel {
 
 
         // === Column 2: Details and Puzzle Selection ===
-        JPanel detailsColumn = new JPanel(new GridLayout(8, 2));
+        JPanel detailsColumn = new JPanel(new GridLayout(9, 2));
         totalSequentialTimeLabel = new JLabel();
         totalConcurrentTimeLabel = new JLabel();
         sequentialRateLabel = new JLabel();
         concurrentRateLabel = new JLabel();
         sequentialTimeLabel = new JLabel();
         concurrentTimeLabel = new JLabel();
+        parallelBatchRateLabel = new JLabel();
 
         indexField = new JTextField();
         indexField.setText("0");
@@ -63,6 +70,8 @@ public class ResultsPanel extends JPanel {
         detailsColumn.add(sequentialRateLabel);
         detailsColumn.add(new JLabel("Sudokus/sec Concurrent:"));
         detailsColumn.add(concurrentRateLabel);
+        detailsColumn.add(new JLabel("Sudokus/sec Parallel Batch:"));
+        detailsColumn.add(parallelBatchRateLabel);
         detailsColumn.add(new JLabel("Sequential Time (Selected):"));
         detailsColumn.add(sequentialTimeLabel);
         detailsColumn.add(new JLabel("Concurrent Time (Selected):"));
@@ -145,6 +154,9 @@ public class ResultsPanel extends JPanel {
         totalConcurrentTimeLabel.setText(totalConcurrentTime + " ms");
         sequentialRateLabel.setText(String.format("%.2f", sequentialResults.size() * 1000.0 / totalSequentialTime));
         concurrentRateLabel.setText(String.format("%.2f", concurrentResults.size() * 1000.0 / totalConcurrentTime));
+        // From the wall time, since the batch solves several puzzles at once
+        parallelBatchRateLabel.setText(parallelBatchResults == null ? "-"
+                : String.format("%.2f", parallelBatchResults.size() * 1000.0 / parallelBatchTime));
 
     }
 
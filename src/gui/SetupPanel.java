@@ -1,17 +1,22 @@
 package gui;
 
 import app.SudokuSolverGraphicApp;
+import solver.strategies.PortfolioStrategy;
 
 import javax.swing.*;
 import java.awt.*;
 import javax.swing.border.EmptyBorder;
+import java.util.Arrays;
+import java.util.List;
 
 public class SetupPanel extends JPanel {
     private JCheckBox sequentialCheckbox, concurrentCheckbox;
-    private JCheckBox eliminationStrategyCheckbox, nakedSingleStrategyCheckbox, backtrackingStrategyCheckbox;
+    private JCheckBox eliminationStrategyCheckbox, nakedSingleStrategyCheckbox, hiddenSingleStrategyCheckbox, subsetStrategyCheckbox, fishStrategyCheckbox, backtrackingStrategyCheckbox, dancingLinksStrategyCheckbox;
     private JTextField bfsDepthField;
-    private JCheckBox eliminationConcurrent, nakedSingleConcurrent, backtrackingConcurrent;
+    private JCheckBox eliminationConcurrent, nakedSingleConcurrent, hiddenSingleConcurrent, subsetConcurrent, fishConcurrent, backtrackingConcurrent, dancingLinksConcurrent;
     private JTextField bfsDepthConcurrent;
+    private JTextField portfolioConcurrent;
+    private JCheckBox parallelBatchCheckbox;
     private JRadioButton benchmarkMode, singleSolveMode;
     private JTextField numTestsField;
     private SudokuPanel sudokuPanel;
@@ -39,29 +44,38 @@ public class SetupPanel extends JPanel {
     private JPanel createSequentialSolverPanel() {
         JPanel sequentialPanel = new JPanel(new GridLayout(3, 1));
         sequentialCheckbox = new JCheckBox("Sequential Solver");
-        sequentialCheckbox.addActionListener(e -> toggleSequentialOptions(sequentialCheckbox.isSelected()));
+        sequentialCheckbox.addActionListener(e -> toggleSequentialOptions(sequentialCheckbox.isSelected() || parallelBatchCheckbox.isSelected()));
         sequentialCheckbox.setSelected(true);
         sequentialPanel.add(sequentialCheckbox);
 
-        JPanel sequentialOptions = new JPanel(new GridLayout(4, 1, 5, 5));
+        JPanel sequentialOptions = new JPanel(new GridLayout(8, 1, 5, 5));
         sequentialOptions.setBorder(new EmptyBorder(10, 10, 10, 10));  // Add padding inside the panel
 
         eliminationStrategyCheckbox = new JCheckBox("Enable Elimination Strategy");
         eliminationStrategyCheckbox.setSelected(true);
         nakedSingleStrategyCheckbox = new JCheckBox("Enable Naked Single Strategy");
         nakedSingleStrategyCheckbox.setSelected(true);
+        hiddenSingleStrategyCheckbox = new JCheckBox("Enable Hidden Single Strategy");
+        hiddenSingleStrategyCheckbox.setSelected(true);
+        subsetStrategyCheckbox = new JCheckBox("Enable Subset & Intersection Strategies");
+        fishStrategyCheckbox = new JCheckBox("Enable Fish Strategy");
         backtrackingStrategyCheckbox = new JCheckBox("Enable Backtracking Sequential Strategy");
         backtrackingStrategyCheckbox.setSelected(true);  // Default enabled
+        dancingLinksStrategyCheckbox = new JCheckBox("Enable Dancing Links Strategy (replaces Backtracking)");
 
         JPanel bfsDepthPanel = new JPanel(new GridLayout(1, 2));
         bfsDepthField = new JTextField();
         bfsDepthField.setText("5");
-        bfsDepthPanel.add(new JLabel("BFS Depth (1-10)"));
+        bfsDepthPanel.add(new JLabel("BFS Depth (0-10)"));
         bfsDepthPanel.add(bfsDepthField);
 
         sequentialOptions.add(eliminationStrategyCheckbox);
         sequentialOptions.add(nakedSingleStrategyCheckbox);
+        sequentialOptions.add(hiddenSingleStrategyCheckbox);
+        sequentialOptions.add(subsetStrategyCheckbox);
+        sequentialOptions.add(fishStrategyCheckbox);
         sequentialOptions.add(backtrackingStrategyCheckbox);
+        sequentialOptions.add(dancingLinksStrategyCheckbox);
         sequentialOptions.add(bfsDepthPanel);
         sequentialPanel.add(sequentialOptions);
 
@@ -84,25 +98,42 @@ public class SetupPanel extends JPanel {
         concurrentCheckbox.setSelected(true);
         concurrentPanel.add(concurrentCheckbox);
 
-        JPanel concurrentOptions = new JPanel(new GridLayout(4, 1, 5, 5));
+        JPanel concurrentOptions = new JPanel(new GridLayout(9, 1, 5, 5));
         concurrentOptions.setBorder(new EmptyBorder(10, 10, 10, 10));  // Add padding inside the panel
 
         eliminationConcurrent = new JCheckBox("Enable Elimination Strategy");
         eliminationConcurrent.setSelected(true);
         nakedSingleConcurrent = new JCheckBox("Enable Naked Single Strategy");
+        nakedSingleConcurrent.setSelected(true);
+        hiddenSingleConcurrent = new JCheckBox("Enable Hidden Single Strategy");
+        subsetConcurrent = new JCheckBox("Enable Subset & Intersection Strategies");
+        fishConcurrent = new JCheckBox("Enable Fish Strategy");
         backtrackingConcurrent = new JCheckBox("Enable Backtracking Sequential Strategy");
         backtrackingConcurrent.setSelected(true);  // Default enabled
+        dancingLinksConcurrent = new JCheckBox("Enable Dancing Links Strategy (replaces Backtracking)");
 
         JPanel bfsDepthPanel = new JPanel(new GridLayout(1, 2));
         bfsDepthConcurrent = new JTextField();
-        bfsDepthConcurrent.setText("5");
-        bfsDepthPanel.add(new JLabel("BFS Depth (1-10)"));
+        bfsDepthConcurrent.setText("0");
+        bfsDepthPanel.add(new JLabel("BFS Depth (0-10, 0 splits lazily)"));
         bfsDepthPanel.add(bfsDepthConcurrent);
 
+        // Engines raced on every puzzle, replacing Dancing Links and Backtracking; empty disables it
+        JPanel portfolioPanel = new JPanel(new GridLayout(1, 2));
+        portfolioConcurrent = new JTextField();
+        portfolioConcurrent.setToolTipText("Any of " + Arrays.toString(PortfolioStrategy.Engine.values()));
+        portfolioPanel.add(new JLabel("Portfolio (e.g. BACKTRACKING,DANCING_LINKS)"));
+        portfolioPanel.add(portfolioConcurrent);
+
         concurrentOptions.add(eliminationConcurrent);
         concurrentOptions.add(nakedSingleConcurrent);
+        concurrentOptions.add(hiddenSingleConcurrent);
+        concurrentOptions.add(subsetConcurrent);
+        concurrentOptions.add(fishConcurrent);
         concurrentOptions.add(backtrackingConcurrent);
+        concurrentOptions.add(dancingLinksConcurrent);
         concurrentOptions.add(bfsDepthPanel);
+        concurrentOptions.add(portfolioPanel);
         concurrentPanel.add(concurrentOptions);
 
         toggleConcurrentOptions(true);  // Initially disabled
@@ -113,7 +144,7 @@ public class SetupPanel extends JPanel {
     private JPanel createModeSelectionPanel() {
         JPanel modeSelectionPanel = new JPanel(new BorderLayout());
 
-        JPanel configPanel = new JPanel(new GridLayout(2, 1));
+        JPanel configPanel = new JPanel(new GridLayout(3, 1));
         numberTestsPanel = new JPanel(new GridLayout(1, 2));
         numTestsField = new JTextField();
         numTestsField.setText("1000");
@@ -133,8 +164,13 @@ public class SetupPanel extends JPanel {
         radioPanel.add(benchmarkMode);
         radioPanel.add(singleSolveMode);
 
+        // Solves several puzzles at a time, each one with the sequential solver options
+        parallelBatchCheckbox = new JCheckBox("Parallel Batch Solver (Sequential options, one puzzle per core)");
+        parallelBatchCheckbox.addActionListener(e -> toggleSequentialOptions(sequentialCheckbox.isSelected() || parallelBatchCheckbox.isSelected()));
+
         configPanel.add(radioPanel);
         configPanel.add(numberTestsPanel);
+        configPanel.add(parallelBatchCheckbox);
 
         benchmarkMode.addActionListener(e -> switchMode("Benchmark"));
         singleSolveMode.addActionListener(e -> switchMode("SingleSolve"));
@@ -157,7 +193,11 @@ public class SetupPanel extends JPanel {
     private void toggleSequentialOptions(boolean enabled) {
         eliminationStrategyCheckbox.setEnabled(enabled);
         nakedSingleStrategyCheckbox.setEnabled(enabled);
+        hiddenSingleStrategyCheckbox.setEnabled(enabled);
+        subsetStrategyCheckbox.setEnabled(enabled);
+        fishStrategyCheckbox.setEnabled(enabled);
         backtrackingStrategyCheckbox.setEnabled(enabled);
+        dancingLinksStrategyCheckbox.setEnabled(enabled);
         bfsDepthField.setEnabled(enabled);
     }
 
@@ -165,8 +205,13 @@ public class SetupPanel extends JPanel {
     private void toggleConcurrentOptions(boolean enabled) {
         eliminationConcurrent.setEnabled(enabled);
         nakedSingleConcurrent.setEnabled(enabled);
+        hiddenSingleConcurrent.setEnabled(enabled);
+        subsetConcurrent.setEnabled(enabled);
+        fishConcurrent.setEnabled(enabled);
         backtrackingConcurrent.setEnabled(enabled);
+        dancingLinksConcurrent.setEnabled(enabled);
         bfsDepthConcurrent.setEnabled(enabled);
+        portfolioConcurrent.setEnabled(enabled);
     }
 
     // Validate inputs and start the process
@@ -175,17 +220,23 @@ public class SetupPanel extends JPanel {
             int bfsDepthS = 5;
             int bfsDepthC = 5;
             int numTests = 1000;
+            List<PortfolioStrategy.Engine> portfolioC = List.of();
 
-            if (sequentialCheckbox.isSelected()) {
+            if (sequentialCheckbox.isSelected() || parallelBatchCheckbox.isSelected()) {
                 bfsDepthS = Integer.parseInt(bfsDepthField.getText());
-                if (bfsDepthS < 1 || bfsDepthS > 10) {
-                    throw new NumberFormatException("Sequential BFS Depth must be between 1 and 10.");
+                if (bfsDepthS < 0 || bfsDepthS > 10) {
+                    throw new NumberFormatException("Sequential BFS Depth must be between 0 and 10.");
                 }
             }
             if (concurrentCheckbox.isSelected()) {
                 bfsDepthC = Integer.parseInt(bfsDepthConcurrent.getText());
-                if (bfsDepthC < 1 || bfsDepthC > 10) {
-                    throw new NumberFormatException("Concurrent BFS Depth must be between 1 and 10.");
+                if (bfsDepthC < 0 || bfsDepthC > 10) {
+                    throw new NumberFormatException("Concurrent BFS Depth must be between 0 and 10.");
+                }
+                try {
+                    portfolioC = PortfolioStrategy.parseEngines(portfolioConcurrent.getText());
+                } catch (IllegalArgumentException ex) {
+                    throw new IllegalArgumentException("Portfolio engines must be among " + Arrays.toString(PortfolioStrategy.Engine.values()) + ".");
                 }
             }
             if (benchmarkMode.isSelected()) {
@@ -201,18 +252,28 @@ public class SetupPanel extends JPanel {
                     bfsDepthS,
                     eliminationStrategyCheckbox.isSelected(),
                     nakedSingleStrategyCheckbox.isSelected(),
+                    hiddenSingleStrategyCheckbox.isSelected(),
+                    subsetStrategyCheckbox.isSelected(),
+                    fishStrategyCheckbox.isSelected(),
                     backtrackingStrategyCheckbox.isSelected(),
+                    dancingLinksStrategyCheckbox.isSelected(),
                     concurrentCheckbox.isSelected(),
                     bfsDepthC,
                     eliminationConcurrent.isSelected(),
                     nakedSingleConcurrent.isSelected(),
+                    hiddenSingleConcurrent.isSelected(),
+                    subsetConcurrent.isSelected(),
+                    fishConcurrent.isSelected(),
                     backtrackingConcurrent.isSelected(),
+                    dancingLinksConcurrent.isSelected(),
+                    portfolioC,
+                    parallelBatchCheckbox.isSelected(),
                     singleSolveMode.isSelected(),
                     numTests,
                     sudokuPanel.generateSudokuString()
             );
 
-        } catch (NumberFormatException ex) {
+        } catch (IllegalArgumentException ex) {
             JOptionPane.showMessageDialog(this, "Invalid input: " + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
         }
     }
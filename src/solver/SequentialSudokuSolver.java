@@ -3,41 +3,111 @@ package solver;
 import solver.strategies.*;
 import solver.com.*;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+
 public class SequentialSudokuSolver {
-    private EliminationStrategy ES = null;
-    private NakedSingleStrategy NSS =  null;
-    private BacktrackingSequentialStrategy BSS = null;
+    // Subsets up to quads
+    private static final int MAX_SUBSET_SIZE = 4;
+    // Fish up to Jellyfish
+    private static final int MAX_FISH_SIZE = 4;
 
-    public SequentialSudokuSolver(
-            boolean useEliminationStrategy,
-            boolean useNakedSingleStrategy,
-            boolean useBacktrackingSequentialStrategy,
-            int BFSDepth) {
+    // Configuration only, fixed at construction. Every solve keeps its state on its own board,
+    // trail and tasks, so one instance can be shared by any number of threads and solves.
+    // Null disables a strategy.
+    private final EliminationStrategy ES;
+    private final NakedSingleStrategy NSS;
+    private final HiddenSingleStrategy HSS;
+    private final LockedCandidatesStrategy LCS;
+    private final NakedSubsetStrategy NSubS;
+    private final HiddenSubsetStrategy HSubS;
+    private final FishStrategy FS;
+    private final BacktrackingSequentialStrategy BSS;
+    private final DancingLinksStrategy DLX;
+    private final PropagationEngine engine;
+    private final TreeSizeEstimator estimator;
 
-        if (useEliminationStrategy) ES = new EliminationStrategy();
-        if (useNakedSingleStrategy) NSS = new NakedSingleStrategy();
-        if (useBacktrackingSequentialStrategy) BSS = new BacktrackingSequentialStrategy(BFSDepth, NSS);
+    // Options only the concurrent solver supports are ignored
+    public SequentialSudokuSolver(SolverOptions options) {
+        ES = options.useEliminationStrategy ? new EliminationStrategy() : null;
+        NSS = options.useNakedSingleStrategy ? new NakedSingleStrategy() : null;
+        HSS = options.useHiddenSingleStrategy ? new HiddenSingleStrategy() : null;
+        LCS = options.useSubsetStrategies ? new LockedCandidatesStrategy() : null;
+        NSubS = options.useSubsetStrategies ? new NakedSubsetStrategy(MAX_SUBSET_SIZE) : null;
+        HSubS = options.useSubsetStrategies ? new HiddenSubsetStrategy(MAX_SUBSET_SIZE) : null;
+        FS = options.useFishStrategy ? new FishStrategy(MAX_FISH_SIZE) : null;
+        BSS = options.useBacktrackingStrategy
+                ? new BacktrackingSequentialStrategy(
+                        options.BFSDepth,
+                        NSS,
+                        HSS,
+                        LCS,
+                        NSubS,
+                        HSubS,
+                        FS,
+                        options.scheduler)
+                : null;
+        DLX = options.useDancingLinksStrategy ? new DancingLinksStrategy() : null;
+        engine = new PropagationEngine(NSS, HSS, LCS, NSubS, HSubS, FS, options.scheduler);
+        estimator = new TreeSizeEstimator(engine);
     }
 
     public boolean solve(Board board) {
-        boolean result = true;
-        if (ES != null) result = ES.perform(board);
+        return solve(board, null);
+    }
+
+    // Same solve, but the search gives up and returns false once stop returns true. It is asked
+    // at every search node, so another thread can cancel a solve it no longer needs.
+    public boolean solve(Board board, BooleanSupplier stop) {
+        if (ES != null) ES.perform(board);
         // After the first global elimination, all strategies implement a local elimination to affected cells.
+        // Every strategy then runs to a fixpoint, revisiting only the units that changed.
+        engine.propagate(board);
+
+        // Perform exact cover or backtrack solution if enabled, exact cover taking precedence
+        if (DLX != null) return DLX.perform(board, stop);
+        if (BSS != null) return BSS.perform(board, stop);
+        return false;
+    }
+
+    // Number of solutions of the board, stopping once limit are found. The enabled logical
+    // strategies run first, since they never rule out a solution.
+    public long countSolutions(Board board, long limit) {
+        if (ES != null) ES.perform(board);
+        engine.propagate(board);
+        if (board.hasContradiction()) return 0;
+        return (DLX != null ? DLX : new DancingLinksStrategy()).countSolutions(board, limit);
+    }
+
+    // Predicted difficulty: the estimated number of nodes a search of the board would visit after
+    // the enabled logical strategies, 1 if they solve it or rule it out. Probes a copy, so the
+    // board is left as given.
+    public double estimateSearchNodes(Board board) {
+        return estimateSearchNodes(board, TreeSizeEstimator.PROBES);
+    }
+
+    // Fewer probes are cheaper but noisier
+    public double estimateSearchNodes(Board board, int probes) {
+        Board copy = Board.copy(board);
+        if (ES != null) ES.perform(copy);
+        engine.propagate(copy);
+        return estimator.estimate(copy, probes);
+    }
+
+    // Candidates removed by each subset, intersection and fish strategy over every solve so far,
+    // searches included. Empty if they are disabled.
+    public Map<String, Long> getEliminations() {
+        Map<String, Long> eliminations = new LinkedHashMap<>();
+        if (LCS != null) eliminations.put("Locked Candidates", LCS.getEliminations());
+        if (NSubS != null) eliminations.put("Naked Subsets", NSubS.getEliminations());
+        if (HSubS != null) eliminations.put("Hidden Subsets", HSubS.getEliminations());
+        if (FS != null) eliminations.put("Fish", FS.getEliminations());
+        return eliminations;
+    }
 
-        // Loop through all logical approaches until there's nothing else to do
-        while (result)
-        {
-            if (NSS != null) {
-                result = NSS.perform(board);
-            }
-            // Any logical strategy is enabled, continue to backtrack
-            else {
-                result = false;
-            }
-        }
-
-        // Perform backtrack solution if enabled
-        if (BSS != null) result = BSS.perform(board);
-        return result;
+    // Guesses made by backtracking over every solve so far, 0 if it is disabled
+    public long getSearchNodes() {
+        return BSS == null ? 0 : BSS.getNodes();
     }
 }
@@ -0,0 +1,106 @@
+package solver;
+
+import solver.strategies.PortfolioStrategy;
+import solver.strategies.StrategyScheduler;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+// Which strategies a solver facade runs and how it searches. Every strategy starts disabled and
+// every setting at its default; each setter returns the options so calls can be chained. A
+// solver reads the options once when it is built, so later changes only affect new solvers.
+public class SolverOptions {
+    boolean useEliminationStrategy = false;
+    boolean useNakedSingleStrategy = false;
+    boolean useHiddenSingleStrategy = false;
+    boolean useSubsetStrategies = false;
+    boolean useFishStrategy = false;
+    boolean useBacktrackingStrategy = false;
+    boolean useDancingLinksStrategy = false;
+    int BFSDepth = 0;
+    StrategyScheduler scheduler = null;
+    ForkJoinPool pool = null;
+    int promotionNodes = 0;
+    long promotionNanos = 0;
+    List<PortfolioStrategy.Engine> portfolio = List.of();
+
+    public SolverOptions useEliminationStrategy(boolean use) {
+        useEliminationStrategy = use;
+        return this;
+    }
+
+    public SolverOptions useNakedSingleStrategy(boolean use) {
+        useNakedSingleStrategy = use;
+        return this;
+    }
+
+    public SolverOptions useHiddenSingleStrategy(boolean use) {
+        useHiddenSingleStrategy = use;
+        return this;
+    }
+
+    // Locked candidates, naked subsets and hidden subsets
+    public SolverOptions useSubsetStrategies(boolean use) {
+        useSubsetStrategies = use;
+        return this;
+    }
+
+    public SolverOptions useFishStrategy(boolean use) {
+        useFishStrategy = use;
+        return this;
+    }
+
+    // Sequential or concurrent backtracking, after the facade
+    public SolverOptions useBacktrackingStrategy(boolean use) {
+        useBacktrackingStrategy = use;
+        return this;
+    }
+
+    // Exact cover takes precedence over backtracking when both are enabled
+    public SolverOptions useDancingLinksStrategy(boolean use) {
+        useDancingLinksStrategy = use;
+        return this;
+    }
+
+    // Levels of the search tree expanded breadth-first before the depth-first search. For the
+    // concurrent solver, 0 splits the search lazily whenever a worker is idle.
+    public SolverOptions BFSDepth(int depth) {
+        BFSDepth = depth;
+        return this;
+    }
+
+    // The scheduler reorders and skips the propagation strategies by measured yield, null keeps
+    // the fixed order. It can be shared by several solvers to pool what they learn.
+    public SolverOptions scheduler(StrategyScheduler scheduler) {
+        this.scheduler = scheduler;
+        return this;
+    }
+
+    // Concurrent solver only. Searches and portfolio races run in the given pool, or in the shared
+    // WorkerPool if null. The pool is never shut down by the solver.
+    public SolverOptions pool(ForkJoinPool pool) {
+        this.pool = pool;
+        return this;
+    }
+
+    // Concurrent solver only. Each search runs on its own until it has branched promotionNodes
+    // times or run for promotionNanos, whichever comes first, and only then splits, so puzzles
+    // that turn out easy stay sequential. 0 leaves a budget out. Meant for batches sharing the
+    // pool, see ParallelBatchSolver. Needs a BFS depth of 0.
+    public SolverOptions promotionNodes(int nodes) {
+        promotionNodes = nodes;
+        return this;
+    }
+
+    public SolverOptions promotionNanos(long nanos) {
+        promotionNanos = nanos;
+        return this;
+    }
+
+    // Concurrent solver only. A non-empty portfolio races those engines on every puzzle, in the
+    // same pool, and takes precedence over exact cover and backtracking.
+    public SolverOptions portfolio(List<PortfolioStrategy.Engine> engines) {
+        portfolio = List.copyOf(engines);
+        return this;
+    }
+}
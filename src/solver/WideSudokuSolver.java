@@ -0,0 +1,41 @@
+package solver;
+
+import solver.fast.BandSolver;
+import solver.utils.SudokuParser;
+import solver.wide.WideBoard;
+import solver.wide.WideSearch;
+import solver.wide.WideUnits;
+
+// Solves boards of any box size and variant. Classic 9x9 puzzles go to the band solver, whose
+// bit-parallel tables only exist for that grid; everything else runs on the wide board. Not thread-safe, since
+// the band solver reuses its search stack; use one instance per thread.
+public class WideSudokuSolver {
+    private final BandSolver fastPath = new BandSolver();
+    private final WideSearch search = new WideSearch();
+
+    // Solution in the same symbols as the puzzle, see SudokuParser, or null without solution
+    public String solve(String puzzle) {
+        if (puzzle.length() == BandSolver.CELLS) return fastPath.solve(puzzle);
+
+        WideBoard board = SudokuParser.parseWideBoard(puzzle);
+        return solve(board) ? SudokuParser.wideBoardToString(board) : null;
+    }
+
+    // Solution of a puzzle of the given variant, see WideUnits, or null without solution
+    public String solve(String puzzle, WideUnits units) {
+        if (units == WideUnits.of(3)) return solve(puzzle);
+
+        WideBoard board = SudokuParser.parseWideBoard(puzzle, units);
+        return solve(board) ? SudokuParser.wideBoardToString(board) : null;
+    }
+
+    // Solves the board in place on the wide path, whatever its size
+    public boolean solve(WideBoard board) {
+        return search.solve(board);
+    }
+
+    // Guesses made on the wide path over every solve so far
+    public long getSearchNodes() {
+        return search.getNodes();
+    }
+}
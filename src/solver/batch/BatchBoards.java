@@ -0,0 +1,68 @@
+package solver.batch;
+
+import solver.com.*;
+
+import java.util.Arrays;
+import java.util.List;
+
+// Many puzzles stored as structure of arrays: the state of cell i in puzzle p is at i * lanes + p,
+// so the same cell of consecutive puzzles is contiguous and can be processed as one vector.
+public class BatchBoards {
+    public final int count;
+    // Puzzles plus padding up to a multiple of the vector length; padding lanes stay empty
+    public final int lanes;
+    // Candidates of every cell, a placed cell keeping only its digit
+    public final int[] candidates;
+    // Digit bit of placed cells, 0 otherwise. Peers drop a placed digit the next time they are visited.
+    public final int[] placed;
+    // Non-zero once a puzzle has reached a contradiction
+    public final int[] dead;
+
+    public BatchBoards(List<String> puzzles, int laneMultiple) {
+        this.count = puzzles.size();
+        this.lanes = (count + laneMultiple - 1) / laneMultiple * laneMultiple;
+        this.candidates = new int[Board.CELLS * lanes];
+        this.placed = new int[Board.CELLS * lanes];
+        this.dead = new int[lanes];
+
+        Arrays.fill(candidates, Cell.ALL_CANDIDATES);
+        for (int p = 0; p < count; ++p) {
+            String puzzle = puzzles.get(p);
+            if (puzzle.length() != Board.CELLS) {
+                throw new IllegalStateException("Puzzle string is meant to be " + Board.CELLS + " chars long, but " + puzzle.length() + " chars were detected.");
+            }
+            for (int i = 0; i < Board.CELLS; ++i) {
+                char ch = puzzle.charAt(i);
+                if (ch != '.') candidates[i * lanes + p] = Cell.bit(ch - '0');
+            }
+        }
+    }
+
+    public boolean isSolved(int p) {
+        if (dead[p] != 0) return false;
+        for (int i = 0; i < Board.CELLS; ++i) {
+            if (placed[i * lanes + p] == 0) return false;
+        }
+        return true;
+    }
+
+    // The puzzle as a Board holding the digits placed so far and the remaining candidates
+    public Board toBoard(int p) {
+        Board board = new Board();
+        for (int i = 0; i < Board.CELLS; ++i) {
+            int mask = candidates[i * lanes + p];
+            if (placed[i * lanes + p] != 0) board.setNumber(i, Cell.first(mask));
+            else board.setCandidates(i, mask);
+        }
+        return board;
+    }
+
+    public String toString(int p) {
+        StringBuilder s = new StringBuilder(Board.CELLS);
+        for (int i = 0; i < Board.CELLS; ++i) {
+            int mask = placed[i * lanes + p];
+            s.append(mask != 0 ? (char) ('0' + Cell.first(mask)) : '.');
+        }
+        return s.toString();
+    }
+}
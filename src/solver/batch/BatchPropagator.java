@@ -0,0 +1,12 @@
+package solver.batch;
+
+// One propagation round over every puzzle of a batch, see BatchBoards for the layout
+public interface BatchPropagator {
+
+    // Puzzles processed together; batches are padded to a multiple of this
+    int laneCount();
+
+    // Eliminates placed digits from their peers, then places naked and hidden singles.
+    // Returns true if any puzzle placed a digit.
+    boolean propagate(BatchBoards boards);
+}
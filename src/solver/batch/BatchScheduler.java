@@ -0,0 +1,294 @@
+package solver.batch;
+
+import solver.SequentialSudokuSolver;
+import solver.com.Board;
+import solver.com.WorkerPool;
+import solver.utils.SudokuParser;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.IntStream;
+
+// Runs a batch, optionally ordered by predicted cost, and backs up the stragglers. Once nothing
+// is left in the queue the idle workers run the puzzles that take far longer than the rest again
+// with a second solver configuration. Whichever attempt finishes first gives the result and
+// cancels the other.
+public class BatchScheduler {
+    public enum Order {
+        // As given
+        FIFO,
+        // Fewest estimated search nodes first. Only pays off when the batch mixes many easy
+        // puzzles with a few hard ones: on 4 workers, with three easy puzzles for each one of
+        // res/benchmark.txt, p50 fell from 139 to 58 ms but p99 and makespan rose about 10%. On
+        // puzzles of similar difficulty, such as res/benchmark.txt alone, the predictions cost
+        // more than the ordering saves: p50 barely moved and makespan grew 6-7% over FIFO.
+        SHORTEST_FIRST
+    }
+
+    // Probes per prediction; ranking needs the order of magnitude only, and every puzzle waits
+    // for the predictions of the whole batch
+    private static final int PROBES = 4;
+    // Puzzles finished before any running one can count as a straggler
+    private static final int MIN_FINISHED = 32;
+    // A puzzle is a straggler once it runs longer than this percentile of the solve times of the
+    // finished puzzles
+    private static final double STRAGGLER_PERCENTILE = 0.95;
+
+    private final SequentialSudokuSolver solver;
+    private final SequentialSudokuSolver backup;
+    private final ForkJoinPool pool;
+
+    // The backup should search differently, with another engine or branching, so it is not
+    // stuck on the same puzzles; null disables speculation. A null pool uses the shared
+    // WorkerPool. The pool is never shut down by the scheduler.
+    public BatchScheduler(SequentialSudokuSolver solver, SequentialSudokuSolver backup, ForkJoinPool pool) {
+        this.solver = solver;
+        this.backup = backup;
+        this.pool = pool != null ? pool : WorkerPool.get();
+    }
+
+    public BatchScheduler(SequentialSudokuSolver solver, SequentialSudokuSolver backup) {
+        this(solver, backup, null);
+    }
+
+    public static final class Report {
+        public final Order order;
+        // In the order of the puzzles, null for a puzzle without solution
+        public final List<String> solutions;
+        // Nanoseconds from the start of the batch to the result of each puzzle, in puzzle order
+        public final long[] latencies;
+        // Nanoseconds until the last result, predictions included
+        public final long makespan;
+        public final int speculated;
+        public final int backupWins;
+
+        Report(Order order, List<String> solutions, long[] latencies, long makespan, int speculated, int backupWins) {
+            this.order = order;
+            this.solutions = solutions;
+            this.latencies = latencies;
+            this.makespan = makespan;
+            this.speculated = speculated;
+            this.backupWins = backupWins;
+        }
+
+        // Nearest-rank percentile of the latencies, p between 0 and 1
+        public long percentile(double p) {
+            if (latencies.length == 0) return 0;
+            long[] sorted = latencies.clone();
+            Arrays.sort(sorted);
+            int rank = (int) Math.ceil(p * sorted.length);
+            return sorted[Math.max(0, rank - 1)];
+        }
+
+        public long getP50() {
+            return percentile(0.50);
+        }
+
+        public long getP99() {
+            return percentile(0.99);
+        }
+    }
+
+    private static final class Job {
+        final int index;
+        final String puzzle;
+        double estimate = 1;
+        // Set by the worker that takes the job from the queue
+        volatile long start;
+        final AtomicBoolean done = new AtomicBoolean();
+        final AtomicBoolean speculated = new AtomicBoolean();
+        volatile String solution;
+        volatile long finish;
+        volatile boolean backupWon;
+
+        Job(int index, String puzzle) {
+            this.index = index;
+            this.puzzle = puzzle;
+        }
+    }
+
+    // One pass over the puzzles in the given order
+    public Report solveAll(List<String> puzzles, Order order) {
+        long batchStart = System.nanoTime();
+        Job[] jobs = new Job[puzzles.size()];
+        for (int i = 0; i < jobs.length; ++i) jobs[i] = new Job(i, puzzles.get(i));
+
+        // Predictions cost a fraction of a solve each, so they are spread over the workers as well
+        // and only made if the order needs them
+        if (order == Order.SHORTEST_FIRST) {
+            pool.submit(() -> IntStream.range(0, jobs.length).parallel().forEach(i ->
+                    jobs[i].estimate = solver.estimateSearchNodes(SudokuParser.parseBoard(jobs[i].puzzle), PROBES))).join();
+        }
+
+        Job[] queue = jobs.clone();
+        if (order == Order.SHORTEST_FIRST) Arrays.sort(queue, Comparator.comparingDouble(job -> job.estimate));
+
+        Batch batch = new Batch(queue);
+        ForkJoinTask<?>[] workers = new ForkJoinTask<?>[pool.getParallelism()];
+        for (int w = 0; w < workers.length; ++w) workers[w] = pool.submit(batch::work);
+        for (ForkJoinTask<?> worker : workers) worker.join();
+
+        String[] solutions = new String[jobs.length];
+        long[] latencies = new long[jobs.length];
+        long makespan = 0;
+        int speculated = 0;
+        int backupWins = 0;
+        for (Job job : jobs) {
+            solutions[job.index] = job.solution;
+            latencies[job.index] = job.finish - batchStart;
+            makespan = Math.max(makespan, job.finish - batchStart);
+            if (job.speculated.get()) ++speculated;
+            if (job.backupWon) ++backupWins;
+        }
+        return new Report(order, Arrays.asList(solutions), latencies, makespan, speculated, backupWins);
+    }
+
+    // State shared by the workers of one batch
+    private class Batch {
+        private final Job[] queue;
+        private final AtomicInteger next = new AtomicInteger();
+        private final Set<Job> running = ConcurrentHashMap.newKeySet();
+        // Solve time of every puzzle finished so far by its first attempt, in finishing order
+        private final AtomicLongArray durations;
+        private final AtomicInteger finished = new AtomicInteger();
+        // Signalled whenever an attempt ends, for workers waiting on stragglers
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition attemptEnded = lock.newCondition();
+
+        Batch(Job[] queue) {
+            this.queue = queue;
+            this.durations = new AtomicLongArray(queue.length);
+        }
+
+        void work() {
+            while (true) {
+                int k = next.get() < queue.length ? next.getAndIncrement() : queue.length;
+                if (k < queue.length) {
+                    Job job = queue[k];
+                    job.start = System.nanoTime();
+                    running.add(job);
+                    attempt(job, solver, false);
+                    running.remove(job);
+                    signalAttemptEnded();
+                    continue;
+                }
+
+                // While puzzles are queued every worker is busy, and a backup would only delay them.
+                // Without a backup, or once no running puzzle is left to back up, the worker is done.
+                if (backup == null) return;
+                Job straggler = awaitStraggler();
+                if (straggler == null) return;
+                attempt(straggler, backup, true);
+                signalAttemptEnded();
+            }
+        }
+
+        private void signalAttemptEnded() {
+            lock.lock();
+            try {
+                attemptEnded.signalAll();
+            }
+            finally {
+                lock.unlock();
+            }
+        }
+
+        // Blocks as a managed blocker, so a pool shared with other work can compensate for the
+        // waiting worker, until a running puzzle turns into a straggler
+        private Job awaitStraggler() {
+            StragglerWait wait = new StragglerWait();
+            try {
+                ForkJoinPool.managedBlock(wait);
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+            return wait.straggler;
+        }
+
+        private void attempt(Job job, SequentialSudokuSolver attemptSolver, boolean isBackup) {
+            Board board = SudokuParser.parseBoard(job.puzzle);
+            boolean solved = attemptSolver.solve(board, job.done::get);
+            // A cancelled attempt finds the job done already, so only the first one gets here
+            if (!job.done.compareAndSet(false, true)) return;
+
+            job.solution = solved ? SudokuParser.boardToString(board) : null;
+            job.backupWon = isBackup;
+            job.finish = System.nanoTime();
+            if (!isBackup) durations.set(finished.getAndIncrement(), job.finish - job.start);
+        }
+
+        // Waits for the first running puzzle to exceed the straggler limit. Ends with a straggler,
+        // or without one once every running puzzle is done or backed up already.
+        private class StragglerWait implements ForkJoinPool.ManagedBlocker {
+            Job straggler;
+            boolean over;
+            // Until the next running puzzle could turn into a straggler, 0 to wait for an attempt
+            // to end
+            long waitNanos;
+
+            @Override
+            public boolean isReleasable() {
+                if (straggler == null && !over) findStraggler();
+                return straggler != null || over;
+            }
+
+            // Checks again under the lock, so an attempt ending meanwhile is not missed
+            @Override
+            public boolean block() throws InterruptedException {
+                lock.lock();
+                try {
+                    while (!isReleasable()) {
+                        if (waitNanos > 0) attemptEnded.awaitNanos(waitNanos);
+                        else attemptEnded.await();
+                    }
+                }
+                finally {
+                    lock.unlock();
+                }
+                return true;
+            }
+
+            private void findStraggler() {
+                int count = finished.get();
+                long limit = -1;
+                if (count >= MIN_FINISHED) {
+                    // A worker may have raised the count without writing its time yet, which
+                    // leaves a 0 at the low end where it does not move the percentile
+                    long[] known = new long[count];
+                    for (int k = 0; k < count; ++k) known[k] = durations.get(k);
+                    Arrays.sort(known);
+                    limit = known[(int) (STRAGGLER_PERCENTILE * (known.length - 1))];
+                }
+
+                long now = System.nanoTime();
+                boolean candidates = false;
+                waitNanos = Long.MAX_VALUE;
+                for (Job job : running) {
+                    if (job.done.get() || job.speculated.get()) continue;
+                    candidates = true;
+                    if (limit < 0) continue;
+                    long left = job.start + limit - now;
+                    if (left < 0 && job.speculated.compareAndSet(false, true)) {
+                        straggler = job;
+                        return;
+                    }
+                    waitNanos = Math.min(waitNanos, Math.max(1, left));
+                }
+                over = !candidates;
+                if (limit < 0) waitNanos = 0;
+            }
+        }
+    }
+}
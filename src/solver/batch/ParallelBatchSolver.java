@@ -0,0 +1,95 @@
+package solver.batch;
+
+import solver.ConcurrentSudokuSolver;
+import solver.SequentialSudokuSolver;
+import solver.com.Board;
+import solver.com.WorkerPool;
+import solver.utils.SudokuParser;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+
+// Solves many puzzles at once, one per core: each worker takes a puzzle, solves it sequentially
+// on its own board and moves on to the next. Puzzles share nothing, so unlike splitting the
+// search of one puzzle there is no coordination between workers beyond handing out puzzles.
+public class ParallelBatchSolver {
+    private final Predicate<Board> solver;
+    private final ForkJoinPool pool;
+
+    // The solver is shared by every worker, which is safe since it holds configuration only.
+    // A null pool runs the batches in the shared WorkerPool. The pool is never shut down by the
+    // solver.
+    public ParallelBatchSolver(SequentialSudokuSolver solver, ForkJoinPool pool) {
+        this.solver = solver::solve;
+        this.pool = pool != null ? pool : WorkerPool.get();
+    }
+
+    public ParallelBatchSolver(SequentialSudokuSolver solver) {
+        this(solver, null);
+    }
+
+    // Hybrid batches: puzzles run in the concurrent solver's own pool, so every puzzle starts
+    // sequentially on its worker and one still open after the solver's promotion budget splits
+    // its search, but only over workers left idle by the other puzzles. Easy puzzles keep the
+    // throughput of a batch and the hard ones at the end get every core.
+    public ParallelBatchSolver(ConcurrentSudokuSolver solver) {
+        this.solver = solver::solve;
+        this.pool = solver.getPool();
+    }
+
+    public static final class Result {
+        // Null for a puzzle without solution
+        public final String solution;
+        // Time spent on this puzzle alone, by whichever worker took it
+        public final long nanos;
+
+        Result(String solution, long nanos) {
+            this.solution = solution;
+            this.nanos = nanos;
+        }
+
+        public boolean isSolved() {
+            return solution != null;
+        }
+    }
+
+    public static final class Batch {
+        // In the order of the puzzles
+        public final List<Result> results;
+        // Wall time of the whole batch
+        public final long nanos;
+
+        Batch(List<Result> results, long nanos) {
+            this.results = results;
+            this.nanos = nanos;
+        }
+
+        public double getPuzzlesPerSecond() {
+            return results.size() * 1e9 / Math.max(1, nanos);
+        }
+    }
+
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    // Results come back in the order of the puzzles whatever order the workers finish in. The
+    // range is split by work stealing, so a worker stuck on a hard puzzle leaves the rest of
+    // its share to the others.
+    public Batch solveAll(List<String> puzzles) {
+        Result[] results = new Result[puzzles.size()];
+
+        long startTime = System.nanoTime();
+        pool.submit(() -> IntStream.range(0, results.length).parallel().forEach(i -> {
+            long start = System.nanoTime();
+            Board board = SudokuParser.parseBoard(puzzles.get(i));
+            boolean solved = solver.test(board);
+            results[i] = new Result(solved ? SudokuParser.boardToString(board) : null, System.nanoTime() - start);
+        })).join();
+        long elapsedTime = System.nanoTime() - startTime;
+
+        return new Batch(List.of(results), elapsedTime);
+    }
+}
@@ -0,0 +1,71 @@
+package solver.batch;
+
+import solver.com.*;
+
+public class ScalarBatchPropagator implements BatchPropagator {
+
+    @Override
+    public int laneCount() {
+        return 1;
+    }
+
+    @Override
+    public boolean propagate(BatchBoards boards) {
+        int lanes = boards.lanes;
+        int[] candidates = boards.candidates;
+        int[] placed = boards.placed;
+        int[] dead = boards.dead;
+        boolean changed = false;
+
+        // Elimination and naked singles
+        for (int i = 0; i < Board.CELLS; ++i) {
+            int[] peers = Units.PEERS[i];
+            int offset = i * lanes;
+            for (int p = 0; p < lanes; ++p) {
+                int taken = 0;
+                for (int k = 0; k < peers.length; ++k) taken |= placed[peers[k] * lanes + p];
+
+                int c = candidates[offset + p] & ~taken;
+                candidates[offset + p] = c;
+                if (c == 0) dead[p] = 1;
+                else if ((c & (c - 1)) == 0 && placed[offset + p] == 0) {
+                    placed[offset + p] = c;
+                    changed = true;
+                }
+            }
+        }
+
+        // Hidden singles, counting candidates in two bit planes across the cells of each unit
+        for (int u = 0; u < Units.UNIT_COUNT; ++u) {
+            int[] cells = Units.UNITS[u];
+            for (int p = 0; p < lanes; ++p) {
+                int one = 0;
+                int two = 0;
+                for (int cell : cells) {
+                    int c = candidates[cell * lanes + p];
+                    two |= one & c;
+                    one |= c;
+                }
+                if (one != Cell.ALL_CANDIDATES) dead[p] = 1;
+
+                int unique = one & ~two;
+                if (unique == 0) continue;
+                for (int cell : cells) {
+                    int index = cell * lanes + p;
+                    int h = candidates[index] & unique;
+                    if (h == 0 || placed[index] != 0) continue;
+                    // One cell cannot be the only place for two digits
+                    if ((h & (h - 1)) != 0) {
+                        dead[p] = 1;
+                        continue;
+                    }
+                    candidates[index] = h;
+                    placed[index] = h;
+                    changed = true;
+                }
+            }
+        }
+
+        return changed;
+    }
+}
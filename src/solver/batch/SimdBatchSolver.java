@@ -0,0 +1,79 @@
+package solver.batch;
+
+import solver.SequentialSudokuSolver;
+import solver.com.Board;
+import solver.utils.SudokuParser;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Solves many puzzles at once: elimination and singles run across the whole batch in lockstep,
+// vectorized when the Vector API is available, and only the puzzles still open afterwards are
+// handed one by one to a regular solver.
+public class SimdBatchSolver {
+    private final BatchPropagator propagator;
+    private final SequentialSudokuSolver fallback;
+
+    public SimdBatchSolver(SequentialSudokuSolver fallback) {
+        this.propagator = createPropagator();
+        this.fallback = fallback;
+    }
+
+    // The vector version is built from the vector source root and needs the incubator module,
+    // which is only resolved when the JVM runs with --add-modules jdk.incubator.vector, so it is
+    // loaded by name and only if both are present
+    private static BatchPropagator createPropagator() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            try {
+                return (BatchPropagator) Class.forName("solver.batch.VectorBatchPropagator")
+                        .getDeclaredConstructor()
+                        .newInstance();
+            }
+            catch (ReflectiveOperationException | LinkageError e) {
+                // Fall back to the scalar version below
+            }
+        }
+        return new ScalarBatchPropagator();
+    }
+
+    public boolean isVectorized() {
+        return !(propagator instanceof ScalarBatchPropagator);
+    }
+
+    public static final class Batch {
+        // In the order of the puzzles, null for a puzzle without solution
+        public final List<String> solutions;
+        // Puzzles that propagation left open and the fallback solver searched
+        public final int fallbackCount;
+
+        Batch(List<String> solutions, int fallbackCount) {
+            this.solutions = solutions;
+            this.fallbackCount = fallbackCount;
+        }
+    }
+
+    // Everything about a batch is in its result, so one solver can run batches on several threads
+    public Batch solve(List<String> puzzles) {
+        BatchBoards boards = new BatchBoards(puzzles, propagator.laneCount());
+        while (propagator.propagate(boards)) {
+            // Repeat until no puzzle places anything
+        }
+
+        List<String> solutions = new ArrayList<>(puzzles.size());
+        int fallbackCount = 0;
+        for (int p = 0; p < boards.count; ++p) {
+            if (boards.isSolved(p)) {
+                solutions.add(boards.toString(p));
+            }
+            else if (boards.dead[p] != 0) {
+                solutions.add(null);
+            }
+            else {
+                ++fallbackCount;
+                Board board = boards.toBoard(p);
+                solutions.add(fallback.solve(board) ? SudokuParser.boardToString(board) : null);
+            }
+        }
+        return new Batch(solutions, fallbackCount);
+    }
+}
@@ -1,53 +1,199 @@
 package solver.com;
 
-import java.util.ArrayList;
-
 public class Board {
     public static final int SIZE = 9;
-    public Cell[][] cells;
+    public static final int CELLS = SIZE * SIZE;
+
+    // Values live in [0, CELLS), candidate masks in [CELLS, 2 * CELLS), then one bitset of empty
+    // cells per candidate count from 0 to SIZE, then for every unit the positions where each digit is still
+    // a candidate and the digits already placed, and last the set of units changed since they were
+    // last taken. A whole state is copied with a single arraycopy.
+    private static final int MASKS = CELLS;
+    private static final int BUCKETS = 2 * CELLS;
+    private static final int WORDS = (CELLS + 31) / 32;
+    private static final int OCCURRENCES = BUCKETS + (SIZE + 1) * WORDS;
+    private static final int PLACED = OCCURRENCES + Units.UNIT_COUNT * SIZE;
+    private static final int DIRTY = PLACED + Units.UNIT_COUNT;
+    private static final int LENGTH = DIRTY + 1;
+
+    private final int[] grid;
+    // When set, every change is recorded so a search can undo it; copies never share it
+    private Trail trail;
+    // Candidates removed from this board so far, placements included; not part of the state
+    private long eliminations;
 
     public Board() {
-        cells = new Cell[SIZE][SIZE];
-        for (int i = 0; i < SIZE; ++i) {
-            for (int j = 0; j < SIZE; ++j) {
-                cells[i][j] = new Cell();
-            }
+        grid = new int[LENGTH];
+        for (int i = 0; i < CELLS; ++i) {
+            grid[MASKS + i] = Cell.ALL_CANDIDATES;
+            grid[BUCKETS + SIZE * WORDS + (i >>> 5)] |= 1 << i;
+        }
+        for (int i = OCCURRENCES; i < PLACED; ++i) {
+            grid[i] = (1 << SIZE) - 1;
         }
     }
 
+    private Board(int[] grid) {
+        this.grid = grid;
+    }
+
     public static Board copy(Board board) {
-        Board newBoard = new Board();
-        for (int i = 0; i < SIZE; ++i) {
-            for (int j = 0; j < SIZE; ++j) {
-                Cell c = board.cells[i][j];
-                if (c.number != 0) {
-                    newBoard.setNumber(i, j, c.number);
-                }
-                else {
-                    newBoard.setCandidates(i, j, c.candidates);
-                }
-            }
-        }
-        return newBoard;
+        int[] grid = new int[LENGTH];
+        System.arraycopy(board.grid, 0, grid, 0, LENGTH);
+        return new Board(grid);
     }
 
     public static void copyTo(Board source, Board target) {
-        for (int i = 0; i < Board.SIZE; ++i) {
-            for (int j = 0; j < Board.SIZE; ++j) {
-                target.cells[i][j] = source.cells[i][j];
+        System.arraycopy(source.grid, 0, target.grid, 0, LENGTH);
+    }
+
+    public long getEliminations() {
+        return eliminations;
+    }
+
+    public void setTrail(Trail trail) {
+        this.trail = trail;
+    }
+
+    public int getNumber(int index) {
+        return grid[index];
+    }
+
+    public int getCandidates(int index) {
+        return grid[MASKS + index];
+    }
+
+    public void setNumber(int index, int number) {
+        if (trail != null) trail.record(index, grid[index], grid[MASKS + index]);
+        write(index, number, 0);
+    }
+
+    public void setNumber(int row, int col, int number) {
+        setNumber(row * SIZE + col, number);
+    }
+
+    public void setCandidates(int index, int candidates) {
+        if (trail != null) trail.record(index, grid[index], grid[MASKS + index]);
+        write(index, 0, candidates);
+    }
+
+    public void setCandidates(int row, int col, int candidates) {
+        setCandidates(row * SIZE + col, candidates);
+    }
+
+    // Removes the candidate bits in mask from the cell, returning true if any was present
+    public boolean removeCandidates(int index, int mask) {
+        int current = grid[MASKS + index];
+        if ((current & mask) == 0) return false;
+        if (trail != null) trail.record(index, 0, current);
+        updateUnits(index, 0, current, 0, current & ~mask);
+
+        // Only empty cells have candidates, so the cell can only move down to a smaller bucket
+        int remaining = current & ~mask;
+        int word = index >>> 5;
+        int bit = 1 << index;
+        grid[BUCKETS + Integer.bitCount(current) * WORDS + word] &= ~bit;
+        grid[BUCKETS + Integer.bitCount(remaining) * WORDS + word] |= bit;
+        grid[MASKS + index] = remaining;
+        return true;
+    }
+
+    // Positions inside the unit (see Units.UNITS) of the empty cells that still have digit as a candidate
+    public int getDigitPositions(int unit, int digit) {
+        return grid[OCCURRENCES + unit * SIZE + digit - 1];
+    }
+
+    public int getPlacedDigits(int unit) {
+        return grid[PLACED + unit];
+    }
+
+    // Units changed since the last call, as a unit set (see Units). Not recorded on the trail:
+    // it only tells propagation where to look again.
+    public int takeDirtyUnits() {
+        int units = grid[DIRTY];
+        grid[DIRTY] = 0;
+        return units;
+    }
+
+    // Lowest empty cell with a single candidate left, or -1. Eliminations move cells into this
+    // bucket as they happen, so it serves as the naked single worklist.
+    public int getNakedSingle() {
+        int offset = BUCKETS + WORDS;
+        for (int w = 0; w < WORDS; ++w) {
+            int word = grid[offset + w];
+            if (word != 0) return (w << 5) + Integer.numberOfTrailingZeros(word);
+        }
+        return -1;
+    }
+
+    // True as soon as an elimination leaves some empty cell without candidates
+    public boolean hasContradiction() {
+        for (int w = 0; w < WORDS; ++w) {
+            if (grid[BUCKETS + w] != 0) return true;
+        }
+        return false;
+    }
+
+    // Empty cell with the fewest candidates (lowest index on ties), or -1 if every cell is filled.
+    // A cell without candidates is returned first, since it is a dead end. Reads at most
+    // (SIZE + 1) buckets times WORDS words, however many cells are empty.
+    public int getMinimumRemainingValuesCell() {
+        for (int offset = BUCKETS; offset < OCCURRENCES; offset += WORDS) {
+            for (int w = 0; w < WORDS; ++w) {
+                int word = grid[offset + w];
+                if (word != 0) return (w << 5) + Integer.numberOfTrailingZeros(word);
             }
         }
+        return -1;
     }
 
-    public void setNumber(int row, int col, int number) {
-        cells[row][col].number = number;
-        cells[row][col].candidates.clear();
+    void restore(int index, int number, int candidates) {
+        write(index, number, candidates);
+    }
+
+    // Moves the cell between candidate count buckets; filled cells belong to none
+    private void write(int index, int number, int candidates) {
+        updateUnits(index, grid[index], grid[MASKS + index], number, candidates);
+
+        int word = index >>> 5;
+        int bit = 1 << index;
+        if (grid[index] == 0) grid[BUCKETS + Integer.bitCount(grid[MASKS + index]) * WORDS + word] &= ~bit;
+        if (number == 0) grid[BUCKETS + Integer.bitCount(candidates) * WORDS + word] |= bit;
+        grid[index] = number;
+        grid[MASKS + index] = candidates;
+    }
+
+    // Keeps the per-unit digit positions and placed digits in step with a change to one cell
+    private void updateUnits(int index, int oldNumber, int oldCandidates, int number, int candidates) {
+        int removed = oldCandidates & ~candidates;
+        int added = candidates & ~oldCandidates;
+        eliminations += Integer.bitCount(removed);
+        int[] units = Units.CELL_UNITS[index];
+        int[] positions = Units.CELL_POSITIONS[index];
+        grid[DIRTY] |= Units.CELL_UNIT_SET[index];
+
+        for (int k = 0; k < units.length; ++k) {
+            int offset = OCCURRENCES + units[k] * SIZE;
+            int bit = 1 << positions[k];
+            for (int m = removed; m != 0; m &= m - 1) {
+                grid[offset + Integer.numberOfTrailingZeros(m)] &= ~bit;
+            }
+            for (int m = added; m != 0; m &= m - 1) {
+                grid[offset + Integer.numberOfTrailingZeros(m)] |= bit;
+            }
+            if (oldNumber != number) {
+                if (oldNumber != 0) grid[PLACED + units[k]] &= ~Cell.bit(oldNumber);
+                if (number != 0) grid[PLACED + units[k]] |= Cell.bit(number);
+            }
+        }
     }
 
-    public void setCandidates(int row, int col, ArrayList<Integer> candidates) {
-        cells[row][col].number = 0;
-        cells[row][col].candidates.clear();
-        cells[row][col].candidates.addAll(candidates);
+    // Snapshot of a single cell for display code; solver code should use the index-based accessors
+    public Cell getCell(int row, int col) {
+        int index = row * SIZE + col;
+        Cell cell = new Cell(grid[index]);
+        cell.candidates = grid[MASKS + index];
+        return cell;
     }
 
     @Override
@@ -55,7 +201,7 @@ public class Board {
         String s = "";
         for (int i = 0; i < SIZE; ++i) {
             for (int j = 0; j < SIZE; ++j) {
-                s += ("Cell (" + i + "," + j + "): " + this.cells[i][j].toString()) + "\n";
+                s += ("Cell (" + i + "," + j + "): " + getCell(i, j).toString()) + "\n";
             }
             s += "\n";
         }
@@ -1,28 +1,30 @@
 package solver.com;
 
-import java.util.ArrayList;
-
 public class Cell {
     public static final int MIN_VAL = 1;
     public static final int MAX_VAL = 9;
+    public static final int ALL_CANDIDATES = (1 << MAX_VAL) - 1;
 
     public int number;
-    public ArrayList<Integer> candidates;
+    // Bit (v - 1) is set while v is still a candidate for this cell
+    public int candidates;
 
     public Cell() {
         this.number = 0;
-        this.candidates = new ArrayList<>();
-        for (int i = MIN_VAL; i <= MAX_VAL; ++i) candidates.add(i);
+        this.candidates = ALL_CANDIDATES;
     }
 
     public Cell(int number) {
         this.number = number;
-        this.candidates = new ArrayList<>();
+        this.candidates = 0;
     }
 
-    public Cell(ArrayList<Integer> candidates) {
-        this.number = 0;
-        this.candidates = candidates;
+    public static int bit(int value) {
+        return 1 << (value - 1);
+    }
+
+    public static int first(int mask) {
+        return Integer.numberOfTrailingZeros(mask) + 1;
     }
 
     @Override
@@ -30,8 +32,8 @@ public class Cell {
         String s = "";
         if (this.number == 0) {
             s += "[";
-            for (int c : this.candidates) {
-                s += (c + ",");
+            for (int mask = this.candidates; mask != 0; mask &= mask - 1) {
+                s += (first(mask) + ",");
             }
             s += "]";
         }
@@ -0,0 +1,46 @@
+package solver.com;
+
+public class Trail {
+    // Each entry stores the cell index and its number and candidates before the change
+    private static final int ENTRY = 3;
+
+    private int[] entries;
+    private int size;
+
+    public Trail() {
+        this.entries = new int[ENTRY * 256];
+        this.size = 0;
+    }
+
+    public int mark() {
+        return size;
+    }
+
+    void record(int index, int number, int candidates) {
+        if (size + ENTRY > entries.length) {
+            int[] grown = new int[entries.length * 2];
+            System.arraycopy(entries, 0, grown, 0, size);
+            entries = grown;
+        }
+        entries[size] = index;
+        entries[size + 1] = number;
+        entries[size + 2] = candidates;
+        size += ENTRY;
+    }
+
+    // Brings another board holding the same state back to mark, keeping the entries. Used to
+    // rebuild an earlier state on a copy while the trailed board stays where it is.
+    public void rewind(Board board, int mark) {
+        for (int k = size - ENTRY; k >= mark; k -= ENTRY) {
+            board.restore(entries[k], entries[k + 1], entries[k + 2]);
+        }
+    }
+
+    // Restores every cell changed since mark, newest change first
+    public void undo(Board board, int mark) {
+        while (size > mark) {
+            size -= ENTRY;
+            board.restore(entries[size], entries[size + 1], entries[size + 2]);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package solver.com;
+
+// Static row, column and box tables for the 9x9 grid, so the solver never divides or
+// takes modulos to find which cells constrain each other.
+public class Units {
+    public static final int BOX = 3;
+    public static final int UNIT_COUNT = 3 * Board.SIZE;
+    public static final int PEER_COUNT = 3 * (Board.SIZE - 1) - 2 * (BOX - 1);
+    // Unit sets are bitmasks with bit u standing for unit u
+    public static final int ALL_UNITS = (1 << UNIT_COUNT) - 1;
+
+    public static final int[] ROW_OF = new int[Board.CELLS];
+    public static final int[] COL_OF = new int[Board.CELLS];
+    public static final int[] BOX_OF = new int[Board.CELLS];
+
+    // Units 0-8 are rows, 9-17 columns and 18-26 boxes, each listing its cell indexes
+    public static final int[][] UNITS = new int[UNIT_COUNT][Board.SIZE];
+    // The row, column and box unit of every cell
+    public static final int[][] CELL_UNITS = new int[Board.CELLS][3];
+    // The row, column and box unit of every cell as a unit set
+    public static final int[] CELL_UNIT_SET = new int[Board.CELLS];
+    // The position of every cell inside its row, column and box unit
+    public static final int[][] CELL_POSITIONS = new int[Board.CELLS][3];
+    // The 20 distinct cells sharing a unit with every cell, excluding the cell itself
+    public static final int[][] PEERS = new int[Board.CELLS][PEER_COUNT];
+    // One cell in each row, column and box, so the units of these cells are all 27 units
+    public static final int[] COVER = new int[Board.SIZE];
+
+    static {
+        for (int i = 0; i < Board.CELLS; ++i) {
+            int row = i / Board.SIZE;
+            int col = i % Board.SIZE;
+            int box = BOX * (row / BOX) + col / BOX;
+            ROW_OF[i] = row;
+            COL_OF[i] = col;
+            BOX_OF[i] = box;
+
+            UNITS[row][col] = i;
+            UNITS[Board.SIZE + col][row] = i;
+            UNITS[2 * Board.SIZE + box][BOX * (row % BOX) + col % BOX] = i;
+
+            CELL_UNITS[i][0] = row;
+            CELL_UNITS[i][1] = Board.SIZE + col;
+            CELL_UNITS[i][2] = 2 * Board.SIZE + box;
+            CELL_UNIT_SET[i] = 1 << row | 1 << (Board.SIZE + col) | 1 << (2 * Board.SIZE + box);
+
+            CELL_POSITIONS[i][0] = col;
+            CELL_POSITIONS[i][1] = row;
+            CELL_POSITIONS[i][2] = BOX * (row % BOX) + col % BOX;
+        }
+
+        for (int r = 0; r < Board.SIZE; ++r) {
+            COVER[r] = r * Board.SIZE + BOX * (r % BOX) + r / BOX;
+        }
+
+        for (int i = 0; i < Board.CELLS; ++i) {
+            int k = 0;
+            for (int j = 0; j < Board.CELLS; ++j) {
+                if (j != i && (ROW_OF[j] == ROW_OF[i] || COL_OF[j] == COL_OF[i] || BOX_OF[j] == BOX_OF[i])) {
+                    PEERS[i][k++] = j;
+                }
+            }
+        }
+    }
+}
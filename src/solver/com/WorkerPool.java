@@ -0,0 +1,22 @@
+package solver.com;
+
+import java.util.concurrent.ForkJoinPool;
+
+// The pool every solver runs its tasks in unless it is given one of its own. Concurrent
+// searches, batches and portfolios all share it, so running several of them at once still
+// keeps one worker per core instead of one per core for each.
+public class WorkerPool {
+
+    private WorkerPool() {
+    }
+
+    public static ForkJoinPool get() {
+        return Holder.POOL;
+    }
+
+    // Created on first use, so programs that never solve concurrently start no threads, and kept
+    // for the life of the JVM; its workers are daemon threads
+    private static class Holder {
+        static final ForkJoinPool POOL = new ForkJoinPool();
+    }
+}
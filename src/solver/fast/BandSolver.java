@@ -0,0 +1,338 @@
+package solver.fast;
+
+// Bit-parallel brute force solver. Every digit keeps its possible positions as three 27-bit
+// words, one per band of three rows, so a whole band of one digit is updated with a handful of
+// mask operations. Cell (row, col) is bit 9 * (row % 3) + col of band row / 3.
+// Guesses are taken on bivalue cells whenever there is one, and each guess copies the small
+// state instead of undoing changes.
+// Instances keep their search stack between solves, so use one per thread.
+public class BandSolver {
+    public static final int SIZE = 9;
+    public static final int CELLS = SIZE * SIZE;
+
+    private static final int BANDS = 3;
+    private static final int BAND = (1 << 27) - 1;
+    private static final int ROW = (1 << SIZE) - 1;
+    private static final int COLUMN = 1 | 1 << SIZE | 1 << 2 * SIZE;
+
+    // State layout: the band words of digit d at [BANDS * d, BANDS * d + BANDS), then the
+    // unsolved cells of each band, then the band words as they were when last propagated,
+    // so digits whose words did not change are skipped
+    private static final int UNSOLVED = BANDS * SIZE;
+    private static final int PROPAGATED = UNSOLVED + BANDS;
+    private static final int STATE = PROPAGATED + BANDS * SIZE;
+
+    private static final int[] BAND_OF = new int[CELLS];
+    private static final int[] BIT_OF = new int[CELLS];
+    // Peers of each cell in each band, the cell itself excluded
+    private static final int[] PEERS = new int[CELLS * BANDS];
+    private static final int[] BOXES = new int[BANDS];
+    // For a 9-bit row chunk, which of its three box segments are non-empty
+    private static final int[] ROW_TRIADS = new int[1 << SIZE];
+    // Bit 3 * row + box of a triad mask stands for the three cells of that row inside that box
+    private static final int[] EXPAND = new int[1 << SIZE];
+    // The triads a digit can still use in a band. Every row and every box of the band takes the
+    // digit exactly once, so the used triads always form a permutation: the allowed triads are the
+    // union of the permutations still possible, or -1 if there is none.
+    private static final int[] SHRINK = new int[1 << SIZE];
+
+    static {
+        for (int i = 0; i < CELLS; ++i) {
+            BAND_OF[i] = i / 27;
+            BIT_OF[i] = 1 << (i % 27);
+        }
+        for (int i = 0; i < CELLS; ++i) {
+            int row = i / SIZE;
+            int col = i % SIZE;
+            for (int j = 0; j < CELLS; ++j) {
+                int r = j / SIZE;
+                int c = j % SIZE;
+                boolean peer = r == row || c == col || (r / 3 == row / 3 && c / 3 == col / 3);
+                if (j != i && peer) PEERS[i * BANDS + BAND_OF[j]] |= BIT_OF[j];
+            }
+        }
+        for (int k = 0; k < BANDS; ++k) {
+            BOXES[k] = (7 << 3 * k) * COLUMN;
+        }
+
+        int[][] permutations = {{0, 1, 2}, {0, 2, 1}, {1, 0, 2}, {1, 2, 0}, {2, 0, 1}, {2, 1, 0}};
+        for (int t = 0; t < (1 << SIZE); ++t) {
+            for (int k = 0; k < BANDS; ++k) {
+                if ((t & 7 << 3 * k) != 0) ROW_TRIADS[t] |= 1 << k;
+                for (int r = 0; r < BANDS; ++r) {
+                    if ((t & 1 << 3 * r + k) != 0) EXPAND[t] |= 7 << 9 * r + 3 * k;
+                }
+            }
+
+            int allowed = 0;
+            for (int[] p : permutations) {
+                int mask = 1 << p[0] | 1 << 3 + p[1] | 1 << 6 + p[2];
+                if ((t & mask) == mask) allowed |= mask;
+            }
+            SHRINK[t] = allowed == 0 ? -1 : allowed;
+        }
+    }
+
+    // One state per search depth, plus the guess taken at each depth
+    private final int[] stack = new int[STATE * (CELLS + 1)];
+    private final int[] guessCells = new int[CELLS];
+    private final int[] guessDigits = new int[CELLS];
+    private final int[] solution = new int[STATE];
+
+    // Solution of a puzzle in the 81-char format of SudokuParser, or null if it has none
+    public String solve(String puzzle) {
+        int[] cells = parse(puzzle);
+        if (!solve(cells)) return null;
+
+        StringBuilder s = new StringBuilder(CELLS);
+        for (int i = 0; i < CELLS; ++i) s.append((char) ('0' + cells[i]));
+        return s.toString();
+    }
+
+    public int countSolutions(String puzzle, int limit) {
+        return countSolutions(parse(puzzle), limit);
+    }
+
+    // Fills the empty (0) cells in place with the first solution found
+    public boolean solve(int[] cells) {
+        if (search(cells, 1) == 0) return false;
+
+        for (int d = 0; d < SIZE; ++d) {
+            for (int b = 0; b < BANDS; ++b) {
+                for (int m = solution[BANDS * d + b]; m != 0; m &= m - 1) {
+                    cells[27 * b + Integer.numberOfTrailingZeros(m)] = d + 1;
+                }
+            }
+        }
+        return true;
+    }
+
+    public int countSolutions(int[] cells, int limit) {
+        return search(cells, limit);
+    }
+
+    private static int[] parse(String puzzle) {
+        if (puzzle.length() != CELLS) {
+            throw new IllegalStateException("Puzzle string is meant to be " + CELLS + " chars long, but " + puzzle.length() + " chars were detected.");
+        }
+        int[] cells = new int[CELLS];
+        for (int i = 0; i < CELLS; ++i) {
+            char ch = puzzle.charAt(i);
+            if (ch == '.' || ch == '0') continue;
+            if (ch < '1' || ch > '9') {
+                throw new IllegalArgumentException("Char '" + ch + "' at " + i + " is not a value of a 9x9 board.");
+            }
+            cells[i] = ch - '0';
+        }
+        return cells;
+    }
+
+    // Counts solutions up to limit, keeping the first one. A guess either leads somewhere or is
+    // removed from its cell in the parent state, so every state only ever needs to be propagated.
+    private int search(int[] cells, int limit) {
+        for (int k = 0; k < PROPAGATED; ++k) stack[k] = BAND;
+        for (int k = PROPAGATED; k < STATE; ++k) stack[k] = 0;
+        for (int i = 0; i < CELLS; ++i) {
+            if (cells[i] < 0 || cells[i] > SIZE) {
+                throw new IllegalArgumentException("Cell " + i + " holds " + cells[i] + ", which is not a value of a 9x9 board.");
+            }
+        }
+        for (int i = 0; i < CELLS; ++i) {
+            if (cells[i] != 0 && !place(stack, 0, i, cells[i] - 1)) return 0;
+        }
+
+        int found = 0;
+        int depth = 0;
+        while (true) {
+            int o = depth * STATE;
+            boolean deadEnd = !propagate(stack, o);
+
+            if (!deadEnd && (stack[o + UNSOLVED] | stack[o + UNSOLVED + 1] | stack[o + UNSOLVED + 2]) == 0) {
+                if (found == 0) System.arraycopy(stack, o, solution, 0, STATE);
+                if (++found >= limit) return found;
+                deadEnd = true;
+            }
+
+            if (deadEnd) {
+                if (depth == 0) return found;
+                --depth;
+                int cell = guessCells[depth];
+                stack[depth * STATE + BANDS * guessDigits[depth] + BAND_OF[cell]] &= ~BIT_OF[cell];
+                continue;
+            }
+
+            int cell = chooseCell(stack, o);
+            int b = BAND_OF[cell];
+            int digit = 0;
+            while ((stack[o + BANDS * digit + b] & BIT_OF[cell]) == 0) ++digit;
+
+            guessCells[depth] = cell;
+            guessDigits[depth] = digit;
+            System.arraycopy(stack, o, stack, o + STATE, STATE);
+            ++depth;
+            place(stack, o + STATE, cell, digit);
+        }
+    }
+
+    // Sets digit at cell: clears the cell from the other digits and the digit from the peers
+    private static boolean place(int[] s, int o, int cell, int digit) {
+        int b = BAND_OF[cell];
+        int bit = BIT_OF[cell];
+        if ((s[o + BANDS * digit + b] & bit) == 0) return false;
+
+        for (int d = 0; d < SIZE; ++d) s[o + BANDS * d + b] &= ~bit;
+        int base = o + BANDS * digit;
+        s[base] &= ~PEERS[cell * BANDS];
+        s[base + 1] &= ~PEERS[cell * BANDS + 1];
+        s[base + 2] &= ~PEERS[cell * BANDS + 2];
+        s[base + b] |= bit;
+        s[o + UNSOLVED + b] &= ~bit;
+        return true;
+    }
+
+    // Runs band shrinking, hidden and naked singles until nothing changes.
+    // Returns false on a contradiction.
+    private static boolean propagate(int[] s, int o) {
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+
+            for (int d = 0; d < SIZE; ++d) {
+                int base = o + BANDS * d;
+                int seen = o + PROPAGATED + BANDS * d;
+                if (s[base] == s[seen] && s[base + 1] == s[seen + 1] && s[base + 2] == s[seen + 2]) continue;
+
+                int columnsOne = 0;
+                int columnsTwo = 0;
+
+                for (int b = 0; b < BANDS; ++b) {
+                    int w = s[base + b];
+                    int r0 = w & ROW;
+                    int r1 = (w >>> SIZE) & ROW;
+                    int r2 = w >>> 2 * SIZE;
+
+                    int allowed = SHRINK[ROW_TRIADS[r0] | ROW_TRIADS[r1] << 3 | ROW_TRIADS[r2] << 6];
+                    if (allowed < 0) return false;
+                    int shrunk = w & EXPAND[allowed];
+                    if (shrunk != w) {
+                        s[base + b] = w = shrunk;
+                        r0 = w & ROW;
+                        r1 = (w >>> SIZE) & ROW;
+                        r2 = w >>> 2 * SIZE;
+                        changed = true;
+                    }
+
+                    // A box using a single column clears that column in the other bands
+                    int fold = r0 | r1 | r2;
+                    for (int k = 0; k < BANDS; ++k) {
+                        int cols = fold & 7 << 3 * k;
+                        if ((cols & (cols - 1)) != 0) continue;
+                        for (int other = 0; other < BANDS; ++other) {
+                            int mask = COLUMN * cols;
+                            if (other != b && (s[base + other] & mask) != 0) {
+                                s[base + other] &= ~mask;
+                                changed = true;
+                            }
+                        }
+                    }
+
+                    // Rows and boxes with the digit in a single, still unsolved cell
+                    int unsolved = s[o + UNSOLVED + b];
+                    int singles = 0;
+                    if ((r0 & (r0 - 1)) == 0) singles |= r0;
+                    if ((r1 & (r1 - 1)) == 0) singles |= r1 << SIZE;
+                    if ((r2 & (r2 - 1)) == 0) singles |= r2 << 2 * SIZE;
+                    for (int k = 0; k < BANDS; ++k) {
+                        int box = w & BOXES[k];
+                        if ((box & (box - 1)) == 0) singles |= box;
+                    }
+                    for (int m = singles & unsolved; m != 0; m &= m - 1) {
+                        if (!place(s, o, 27 * b + Integer.numberOfTrailingZeros(m), d)) return false;
+                        changed = true;
+                    }
+
+                    w = s[base + b];
+                    for (int shift = 0; shift < 27; shift += SIZE) {
+                        int chunk = (w >>> shift) & ROW;
+                        columnsTwo |= columnsOne & chunk;
+                        columnsOne |= chunk;
+                    }
+                }
+
+                s[seen] = s[base];
+                s[seen + 1] = s[base + 1];
+                s[seen + 2] = s[base + 2];
+
+                // Columns without the digit, then columns with a single position for it
+                if (columnsOne != ROW) return false;
+                for (int m = ROW & ~columnsTwo; m != 0; m &= m - 1) {
+                    int mask = COLUMN << Integer.numberOfTrailingZeros(m);
+                    for (int b = 0; b < BANDS; ++b) {
+                        int bit = s[base + b] & mask & s[o + UNSOLVED + b];
+                        if (bit != 0) {
+                            if (!place(s, o, 27 * b + Integer.numberOfTrailingZeros(bit), d)) return false;
+                            changed = true;
+                        }
+                    }
+                }
+            }
+
+            // Naked singles, counting candidates per cell in two bit planes across the digits
+            for (int b = 0; b < BANDS; ++b) {
+                int one = 0;
+                int two = 0;
+                for (int d = 0; d < SIZE; ++d) {
+                    int w = s[o + BANDS * d + b];
+                    two |= one & w;
+                    one |= w;
+                }
+                int unsolved = s[o + UNSOLVED + b];
+                if ((unsolved & ~one) != 0) return false;
+                for (int m = unsolved & ~two; m != 0; m &= m - 1) {
+                    int bit = m & -m;
+                    int d = 0;
+                    while ((s[o + BANDS * d + b] & bit) == 0) {
+                        // Emptied by a placement earlier in this loop
+                        if (++d == SIZE) return false;
+                    }
+                    if (!place(s, o, 27 * b + Integer.numberOfTrailingZeros(bit), d)) return false;
+                    changed = true;
+                }
+            }
+        }
+        return true;
+    }
+
+    // First bivalue cell, or else the unsolved cell with the fewest candidates
+    private static int chooseCell(int[] s, int o) {
+        int best = -1;
+        int bestCount = SIZE + 1;
+        for (int b = 0; b < BANDS; ++b) {
+            int one = 0;
+            int two = 0;
+            int three = 0;
+            for (int d = 0; d < SIZE; ++d) {
+                int w = s[o + BANDS * d + b];
+                three |= two & w;
+                two |= one & w;
+                one |= w;
+            }
+            int unsolved = s[o + UNSOLVED + b];
+            int bivalue = unsolved & two & ~three;
+            if (bivalue != 0) return 27 * b + Integer.numberOfTrailingZeros(bivalue);
+
+            for (int m = unsolved; m != 0 && bestCount > 3; m &= m - 1) {
+                int bit = m & -m;
+                int count = 0;
+                for (int d = 0; d < SIZE; ++d) {
+                    if ((s[o + BANDS * d + b] & bit) != 0) ++count;
+                }
+                if (count < bestCount) {
+                    bestCount = count;
+                    best = 27 * b + Integer.numberOfTrailingZeros(bit);
+                }
+            }
+        }
+        return best;
+    }
+}
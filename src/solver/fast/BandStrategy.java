@@ -0,0 +1,27 @@
+package solver.fast;
+
+import solver.com.Board;
+import solver.strategies.GlobalStrategy;
+
+// Adapter running the band solver on a Board. Only the placed numbers are read: the band solver
+// derives its own candidates, so candidate eliminations made earlier are not needed.
+public class BandStrategy implements GlobalStrategy {
+    private final ThreadLocal<BandSolver> solver = ThreadLocal.withInitial(BandSolver::new);
+    // The board's numbers, rewritten in full on every call
+    private final ThreadLocal<int[]> cells = ThreadLocal.withInitial(() -> new int[Board.CELLS]);
+
+    @Override
+    public boolean perform(Board board) {
+        int[] cells = this.cells.get();
+        for (int i = 0; i < Board.CELLS; ++i) {
+            cells[i] = board.getNumber(i);
+        }
+
+        if (!solver.get().solve(cells)) return false;
+
+        for (int i = 0; i < Board.CELLS; ++i) {
+            if (board.getNumber(i) == 0) board.setNumber(i, cells[i]);
+        }
+        return true;
+    }
+}
@@ -2,164 +2,214 @@ package solver.strategies;
 
 import solver.com.Board;
 import solver.com.Cell;
+import solver.com.WorkerPool;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Stack;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.ForkJoinPool;
-import java.util.concurrent.ForkJoinTask;
-import java.util.concurrent.RecursiveTask;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class BacktrackingConcurrentStrategy implements GlobalStrategy {
-    private final boolean useNSS;
+    // Subtrees of the BFS frontier estimated at most MERGE_NODES are searched one after another by
+    // the task that expanded them, those of SPLIT_NODES or more are expanded one level further.
+    // Only the order of magnitude matters, so the estimates take few probes.
+    private static final double MERGE_NODES = 16;
+    private static final double SPLIT_NODES = 4096;
+    private static final int PROBES = 2;
+
+    private final DepthFirstSearch dfs;
+    private final TreeSizeEstimator estimator;
     private final int BFSDepth;
     private final ForkJoinPool pool;
-    private final AtomicBoolean solutionFound;
+    private final int promotionNodes;
+    private final long promotionNanos;
+
+    // Subset, intersection and fish strategies are shared with the solver so their elimination
+    // counts cover every subtree. Null to disable them. A null pool runs the searches in the
+    // shared WorkerPool.
+    public BacktrackingConcurrentStrategy(
+            int BFSDepth,
+            boolean nakedSingles,
+            boolean hiddenSingles,
+            LockedCandidatesStrategy LCS,
+            NakedSubsetStrategy NSubS,
+            HiddenSubsetStrategy HSubS,
+            FishStrategy FS,
+            StrategyScheduler scheduler,
+            ForkJoinPool pool) {
+        this(BFSDepth, nakedSingles, hiddenSingles, LCS, NSubS, HSubS, FS, scheduler, pool, 0, 0);
+    }
 
-    public BacktrackingConcurrentStrategy(int BFSDepth, boolean nakedSingles) {
-        this.useNSS = nakedSingles;
+    // A search first runs on its own, as a sequential one would, until it has branched
+    // promotionNodes times or run for promotionNanos, whichever comes first, and only then starts
+    // handing subtrees to idle workers. Puzzles solved within the budget never pay for splitting.
+    // Mostly useful when other puzzles keep the pool busy meanwhile. Either budget may be 0 to
+    // leave it out; with both 0 the search splits from the start. A fixed BFSDepth expands the
+    // tree before any search, so it cannot be combined with a budget.
+    public BacktrackingConcurrentStrategy(
+            int BFSDepth,
+            boolean nakedSingles,
+            boolean hiddenSingles,
+            LockedCandidatesStrategy LCS,
+            NakedSubsetStrategy NSubS,
+            HiddenSubsetStrategy HSubS,
+            FishStrategy FS,
+            StrategyScheduler scheduler,
+            ForkJoinPool pool,
+            int promotionNodes,
+            long promotionNanos) {
+        if (BFSDepth > 0 && (promotionNodes > 0 || promotionNanos > 0)) {
+            throw new IllegalArgumentException("A promotion budget needs a BFS depth of 0, but the depth was " + BFSDepth);
+        }
+        PropagationEngine engine = new PropagationEngine(
+                nakedSingles ? new NakedSingleStrategy() : null,
+                hiddenSingles ? new HiddenSingleStrategy() : null,
+                LCS,
+                NSubS,
+                HSubS,
+                FS,
+                scheduler);
+        this.dfs = new DepthFirstSearch(engine);
+        this.estimator = new TreeSizeEstimator(engine);
         this.BFSDepth = BFSDepth;
-        this.pool = new ForkJoinPool();
-        this.solutionFound = new AtomicBoolean(false);
+        this.pool = pool != null ? pool : WorkerPool.get();
+        this.promotionNodes = promotionNodes;
+        this.promotionNanos = promotionNanos;
+    }
+
+    // Guesses made by the BFS expansion and the searches since this strategy was created
+    public long getNodes() {
+        return dfs.getNodes();
     }
 
     @Override
     public boolean perform(Board board) {
-        // 1st, generate a list of subtrees with BFS until certain depth level
-        LocalEliminationStrategy les =  new LocalEliminationStrategy();
-        ArrayList<Board> roots = new ArrayList<>();
-        ArrayList<Board> leaves = new ArrayList<>();
-        roots.add(board);
-
-        for (int k = 0; k < BFSDepth; ++k) {
-            leaves.clear();
-            for (Board b : roots) {
-                int rootIndex = getRoot(b);
-                if (rootIndex == -1) {
-                    Board.copyTo(b, board);
-                    return true;
-                }
-
-                int rootRow = rootIndex / Board.SIZE;
-                int rootCol = rootIndex % Board.SIZE;
-                Cell rootCell = b.cells[rootRow][rootCol];
-                for (int candidate : rootCell.candidates) {
-                    int[] localConfig = {rootIndex};
-                    Board newB = Board.copy(b);
-                    newB.setNumber(rootRow, rootCol, candidate);
-                    les.perform(newB, localConfig);
-                    if (useNSS) (new NakedSingleStrategy()).perform(newB);
-                    leaves.add(newB);
-                }
-            }
-            roots.clear();
-            roots.addAll(leaves);
-        }
+        // Expand the first BFSDepth levels and search the subtrees below as one task tree in the
+        // ForkJoinPool. Every level is expanded by the tasks themselves, so subtrees are forked as
+        // soon as they are propagated and workers start searching while others still expand.
+        // With a depth of 0 the board is the only subtree, and the tasks split it up lazily as
+        // workers run out of work. The first task to solve its subtree publishes it; every other
+        // task stops at its next node and tasks still queued are cancelled, so this returns at
+        // the first solution.
+        AtomicReference<Board> solution = new AtomicReference<>();
+        // A copy, since the solution is written to the board while other tasks may still search.
+        // Called from a worker of the pool, as in a batch, the root task runs on that worker.
+        pool.invoke(new SudokuTask(Board.copy(board), BFSDepth, solution, promotionNodes > 0 || promotionNanos > 0));
+
+        // The winner no longer touches its board once published
+        Board solved = solution.get();
+        if (solved == null) return false;
+        Board.copyTo(solved, board);
+        return true;
+    }
 
-        //2nd, subscribe each subtree into ForkJoinPool
-        try {
-            List<ForkJoinTask<Boolean>> tasks = leaves.stream()
-                    .map(subtree -> pool.submit(new SudokuTask(subtree, board)))
-                    .toList();
-            for (ForkJoinTask<Boolean> task : tasks) {
-                if (task.get()) {
-                    pool.shutdown();
-                    return true;
-                }
-            }
+    class SudokuTask extends RecursiveAction implements DepthFirstSearch.SplittingCoordinator {
+        // Queued tasks beyond what idle workers can steal at once; below this, searches split
+        private static final int SURPLUS = 2;
 
-        }
-        catch (Exception e) {
-            throw new RuntimeException(e);
+        private final Board subtree;
+        // BFS levels left to expand before the subtree is searched
+        private final int depth;
+        private final AtomicReference<Board> solution;
+        private final List<SudokuTask> forked = new ArrayList<>();
+        // Whether this task still runs on its promotion budget; only the root task starts on one
+        private boolean budgeted;
+        private int nodesLeft;
+        private long deadline;
+
+        public SudokuTask(Board subtree, int depth, AtomicReference<Board> solution, boolean budgeted) {
+            this.subtree = subtree;
+            this.depth = depth;
+            this.solution = solution;
+            this.budgeted = budgeted;
         }
 
-        return false;
-    }
-
-    private int getRoot(Board board) {
-        int minVal = Board.SIZE + 1;
-        int rootIndex = -1;
-
-        for (int i = 0; i < Board.SIZE; ++i) {
-            for (int j = 0; j < Board.SIZE; ++j) {
-                if (board.cells[i][j].number == 0 && board.cells[i][j].candidates.size() < minVal) {
-                    minVal = board.cells[i][j].candidates.size();
-                    rootIndex = i * Board.SIZE + j;
+        @Override
+        protected void compute() {
+            // The budget starts once the search does, not while the task waits in the queue
+            if (budgeted) {
+                nodesLeft = promotionNodes > 0 ? promotionNodes : Integer.MAX_VALUE;
+                deadline = promotionNanos > 0 ? System.nanoTime() + promotionNanos : Long.MAX_VALUE;
+            }
+            if (depth > 0) expand();
+            else if (!shouldStop() && dfs.search(subtree, this)) solution.compareAndSet(null, subtree);
+
+            for (SudokuTask task : forked) {
+                if (shouldStop()) {
+                    // Only drops tasks still queued; running ones stop at their next node
+                    task.cancel(false);
+                    continue;
+                }
+                try {
+                    task.join();
+                }
+                catch (CancellationException e) {
+                    // Cancelled by another task after a solution was found
                 }
             }
         }
-        return rootIndex;
-    }
-
-    private boolean performSequentialDFS(Board board) {
-        LocalEliminationStrategy les = new LocalEliminationStrategy();
-        Stack<Board> stack = new Stack<>();
-        Stack<Integer> values = new Stack<>();
-        stack.push(board);
-
-        do {
-            Board b = stack.peek();
-            int rootIndex = getRoot(b);
 
-            // Solution found
+        // One BFS level: every branch of the MRV cell is propagated on a copy and forked right away.
+        // Branches on the frontier are sized first, so tiny ones are merged into this task and
+        // huge ones are split further instead of each becoming one task.
+        private void expand() {
+            int rootIndex = subtree.getMinimumRemainingValuesCell();
             if (rootIndex == -1) {
-                Board.copyTo(b, board);
-                return true;
+                if (!subtree.hasContradiction()) solution.compareAndSet(null, subtree);
+                return;
             }
 
-            int rootRow = rootIndex / Board.SIZE;
-            int rootCol = rootIndex % Board.SIZE;
-            Cell rootCell = b.cells[rootRow][rootCol];
-
-            // Backtrack if reaches an empty cell without candidates
-            if (rootCell.candidates.isEmpty()) {
-                // No place to backtrack, validation
-                stack.pop();
-                if (stack.isEmpty()) break;
-
-                // Remove candidate to backtrack to updated state
-                b = stack.peek();
-                rootIndex = getRoot(b);
-                int value = values.pop();
-
-                b.cells[rootIndex / Board.SIZE][rootIndex % Board.SIZE].candidates.remove(Integer.valueOf(value));
-                continue;
+            List<Board> merged = new ArrayList<>();
+            for (int mask = subtree.getCandidates(rootIndex); mask != 0 && !shouldStop(); mask &= mask - 1) {
+                // The last branch takes the subtree itself, every earlier one was copied from it
+                Board branch = (mask & (mask - 1)) == 0 ? subtree : Board.copy(subtree);
+                dfs.guess(branch, rootIndex, Cell.first(mask));
+                // Contradictions found by propagation never become subtrees
+                if (branch.hasContradiction()) continue;
+
+                if (depth > 1) {
+                    spawn(new SudokuTask(branch, depth - 1, solution, false));
+                    continue;
+                }
+                double size = estimator.estimate(branch, PROBES);
+                if (size <= MERGE_NODES) merged.add(branch);
+                else spawn(new SudokuTask(branch, size >= SPLIT_NODES ? 1 : 0, solution, false));
             }
 
-            // Push new state
-            int[] localConfig = {rootIndex};
-            Board newB = Board.copy(b);
-            values.push(rootCell.candidates.get(0));
-            newB.setNumber(rootRow, rootCol, rootCell.candidates.get(0));
-            les.perform(newB, localConfig);
-            if (this.useNSS) (new NakedSingleStrategy()).perform(newB);
-            stack.push(newB);
-        } while (!stack.isEmpty());
-
-        return false;
-    }
+            for (Board branch : merged) {
+                if (shouldStop()) return;
+                if (dfs.search(branch, this)) {
+                    solution.compareAndSet(null, branch);
+                    return;
+                }
+            }
+        }
 
-    class SudokuTask extends RecursiveTask<Boolean> {
-        private final Board subtree;
-        private final Board targetBoard;
+        private void spawn(SudokuTask task) {
+            task.fork();
+            forked.add(task);
+        }
 
-        public SudokuTask(Board subtree, Board targetBoard) {
-            this.subtree = subtree;
-            this.targetBoard = targetBoard;
+        @Override
+        public boolean shouldStop() {
+            return solution.get() != null;
         }
 
+        // Only asked from this task's worker thread
         @Override
-        protected Boolean compute() {
-            // Solution already found
-            if (solutionFound.get()) return false;
-
-            boolean result = performSequentialDFS(subtree);
-            if (result) {
-                solutionFound.set(true);
-                Board.copyTo(subtree, targetBoard);
+        public boolean wantsWork() {
+            if (budgeted) {
+                if (nodesLeft-- > 0 && System.nanoTime() < deadline) return false;
+                budgeted = false;
             }
-            return result;
+            return !shouldStop() && getSurplusQueuedTaskCount() < SURPLUS;
+        }
+
+        @Override
+        public void take(Board branch) {
+            spawn(new SudokuTask(branch, 0, solution, false));
         }
     }
 }
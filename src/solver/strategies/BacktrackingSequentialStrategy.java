@@ -3,23 +3,57 @@ package solver.strategies;
 import solver.com.*;
 
 import java.util.ArrayList;
-import java.util.Stack;
+import java.util.function.BooleanSupplier;
 
-public class BacktrackingSequentialStrategy implements GlobalStrategy {
-    // Only to enhance performance if enabled in solver.
-    // Null to disabled it.
-    private final NakedSingleStrategy NSS;
+public class BacktrackingSequentialStrategy implements StoppableStrategy {
+    private final DepthFirstSearch dfs;
     private final int BFSDepth;
 
-    public BacktrackingSequentialStrategy(int BFSDepth, NakedSingleStrategy NSS) {
-        this.NSS = NSS;
+    // Singles, subset, intersection and fish strategies only to enhance performance if enabled in solver.
+    // Null to disable them.
+    public BacktrackingSequentialStrategy(
+            int BFSDepth,
+            NakedSingleStrategy NSS,
+            HiddenSingleStrategy HSS,
+            LockedCandidatesStrategy LCS,
+            NakedSubsetStrategy NSubS,
+            HiddenSubsetStrategy HSubS,
+            FishStrategy FS,
+            StrategyScheduler scheduler) {
+        this(BFSDepth, NSS, HSS, LCS, NSubS, HSubS, FS, scheduler, false);
+    }
+
+    // With randomOrder the candidates of every branching cell are tried in random order instead
+    // of lowest first, so runs differ and one unlucky order does not always cost the same
+    public BacktrackingSequentialStrategy(
+            int BFSDepth,
+            NakedSingleStrategy NSS,
+            HiddenSingleStrategy HSS,
+            LockedCandidatesStrategy LCS,
+            NakedSubsetStrategy NSubS,
+            HiddenSubsetStrategy HSubS,
+            FishStrategy FS,
+            StrategyScheduler scheduler,
+            boolean randomOrder) {
+        this.dfs = new DepthFirstSearch(new PropagationEngine(NSS, HSS, LCS, NSubS, HSubS, FS, scheduler), randomOrder);
         this.BFSDepth = BFSDepth;
     }
 
+    // Guesses made by the BFS expansion and the searches since this strategy was created
+    public long getNodes() {
+        return dfs.getNodes();
+    }
+
     @Override
     public boolean perform(Board board) {
+        return perform(board, null);
+    }
+
+    @Override
+    public boolean perform(Board board, BooleanSupplier stop) {
+        // Only stops the search; it never splits
+        DepthFirstSearch.Coordinator coordinator = stop == null ? null : stop::getAsBoolean;
         // 1st, generate a list of subtrees with BFS until certain depth level
-        LocalEliminationStrategy les =  new LocalEliminationStrategy();
         ArrayList<Board> roots = new ArrayList<>();
         ArrayList<Board> leaves = new ArrayList<>();
         roots.add(board);
@@ -27,91 +61,34 @@ public class BacktrackingSequentialStrategy implements GlobalStrategy {
         for (int k = 0; k < BFSDepth; ++k) {
             leaves.clear();
             for (Board b : roots) {
-                int rootIndex = getRoot(b);
+                if (stop != null && stop.getAsBoolean()) return false;
+                int rootIndex = b.getMinimumRemainingValuesCell();
                 if (rootIndex == -1) {
                     Board.copyTo(b, board);
                     return true;
                 }
 
-                int rootRow = rootIndex / Board.SIZE;
-                int rootCol = rootIndex % Board.SIZE;
-                Cell rootCell = b.cells[rootRow][rootCol];
-                for (int candidate : rootCell.candidates) {
-                    int[] localConfig = {rootIndex};
+                for (int mask = b.getCandidates(rootIndex); mask != 0; mask &= mask - 1) {
+                    int candidate = Cell.first(mask);
                     Board newB = Board.copy(b);
-                    newB.setNumber(rootRow, rootCol, candidate);
-                    les.perform(newB, localConfig);
-                    if (NSS != null) NSS.perform(newB);
-                    leaves.add(newB);
+                    dfs.guess(newB, rootIndex, candidate);
+                    // Contradictions found by propagation never become subtrees
+                    if (!newB.hasContradiction()) leaves.add(newB);
                 }
             }
             roots.clear();
             roots.addAll(leaves);
         }
 
-        // 2nd, perform DFS sequentially on each subtree
-        for (Board subtree : leaves) {
-            Stack<Board> stack = new Stack<>();
-            Stack<Integer> values = new Stack<>();
-            stack.push(subtree);
-
-            do {
-                Board b = stack.peek();
-                int rootIndex = getRoot(b);
-
-                // Solution found
-                if (rootIndex == -1) {
-                    Board.copyTo(b, board);
-                    return true;
-                }
-
-                int rootRow = rootIndex / Board.SIZE;
-                int rootCol = rootIndex % Board.SIZE;
-                Cell rootCell = b.cells[rootRow][rootCol];
-
-                // Backtrack if reaches an empty cell without candidates
-                if (rootCell.candidates.isEmpty()) {
-                    // No place to backtrack, validation
-                    stack.pop();
-                    if (stack.isEmpty()) break;
-
-                    // Remove candidate to backtrack to updated state
-                    b = stack.peek();
-                    rootIndex = getRoot(b);
-                    int value = values.pop();
-
-                    b.cells[rootIndex / Board.SIZE][rootIndex % Board.SIZE].candidates.remove(Integer.valueOf(value));
-                    continue;
-                }
-
-                // Push new state
-                int[] localConfig = {rootIndex};
-                Board newB = Board.copy(b);
-                values.push(rootCell.candidates.get(0));
-                newB.setNumber(rootRow, rootCol, rootCell.candidates.get(0));
-                les.perform(newB, localConfig);
-                if (NSS != null) NSS.perform(newB);
-                stack.push(newB);
-
-            } while (!stack.isEmpty());
+        // 2nd, perform DFS sequentially on each subtree; with a depth of 0 the board is the only one
+        for (Board subtree : roots) {
+            if (dfs.search(subtree, coordinator)) {
+                Board.copyTo(subtree, board);
+                return true;
+            }
         }
 
         // No solution found
         return false;
     }
-
-    private int getRoot(Board board) {
-        int minVal = Board.SIZE + 1;
-        int rootIndex = -1;
-
-        for (int i = 0; i < Board.SIZE; ++i) {
-            for (int j = 0; j < Board.SIZE; ++j) {
-                if (board.cells[i][j].number == 0 && board.cells[i][j].candidates.size() < minVal) {
-                    minVal = board.cells[i][j].candidates.size();
-                    rootIndex = i * Board.SIZE + j;
-                }
-            }
-        }
-        return rootIndex;
-    }
 }
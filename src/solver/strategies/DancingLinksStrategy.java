@@ -0,0 +1,190 @@
+package solver.strategies;
+
+import solver.com.*;
+
+import java.util.function.BooleanSupplier;
+
+// Knuth's Algorithm X with dancing links over the Sudoku exact cover matrix. Every (cell, digit)
+// pair is a row covering four columns: the cell, and the digit in its row, column and box.
+// Nodes are indexes into int arrays instead of objects, so a solve copies the links of the full
+// matrix with a few arraycopy calls and never allocates while searching.
+public class DancingLinksStrategy implements StoppableStrategy {
+    private static final int COLUMNS = 4 * Board.CELLS;
+    private static final int ROWS = Board.CELLS * Board.SIZE;
+    // Node 0 is the root, nodes 1 to COLUMNS the column headers, then four nodes per row
+    private static final int ROOT = 0;
+    private static final int FIRST_ROW_NODE = COLUMNS + 1;
+    private static final int NODES = FIRST_ROW_NODE + 4 * ROWS;
+
+    private static final int[] LEFT = new int[NODES];
+    private static final int[] RIGHT = new int[NODES];
+    private static final int[] UP = new int[NODES];
+    private static final int[] DOWN = new int[NODES];
+    private static final int[] COLUMN = new int[NODES];
+    private static final int[] LENGTH = new int[COLUMNS + 1];
+
+    static {
+        for (int c = 0; c <= COLUMNS; ++c) {
+            LEFT[c] = c == 0 ? COLUMNS : c - 1;
+            RIGHT[c] = c == COLUMNS ? 0 : c + 1;
+            UP[c] = c;
+            DOWN[c] = c;
+            COLUMN[c] = c;
+        }
+
+        for (int row = 0; row < ROWS; ++row) {
+            int index = row / Board.SIZE;
+            int digit = row % Board.SIZE;
+            int[] columns = {
+                    index,
+                    Board.CELLS + Units.ROW_OF[index] * Board.SIZE + digit,
+                    2 * Board.CELLS + Units.COL_OF[index] * Board.SIZE + digit,
+                    3 * Board.CELLS + Units.BOX_OF[index] * Board.SIZE + digit
+            };
+
+            int first = FIRST_ROW_NODE + 4 * row;
+            for (int k = 0; k < 4; ++k) {
+                int node = first + k;
+                int header = columns[k] + 1;
+                LEFT[node] = first + (k + 3) % 4;
+                RIGHT[node] = first + (k + 1) % 4;
+                COLUMN[node] = header;
+                // Append to the bottom of the column
+                UP[node] = UP[header];
+                DOWN[node] = header;
+                DOWN[UP[header]] = node;
+                UP[header] = node;
+                ++LENGTH[header];
+            }
+        }
+    }
+
+    @Override
+    public boolean perform(Board board) {
+        return perform(board, null);
+    }
+
+    @Override
+    public boolean perform(Board board, BooleanSupplier stop) {
+        Matrix matrix = new Matrix(stop);
+        if (!matrix.load(board) || matrix.search(1) == 0) return false;
+
+        for (int k = 0; k < matrix.solutionDepth; ++k) {
+            int row = (matrix.solution[k] - FIRST_ROW_NODE) / 4;
+            board.setNumber(row / Board.SIZE, row % Board.SIZE + 1);
+        }
+        return true;
+    }
+
+    // Number of solutions of the board, stopping once limit are found. The board is left untouched.
+    public long countSolutions(Board board, long limit) {
+        Matrix matrix = new Matrix(null);
+        if (!matrix.load(board)) return 0;
+        return matrix.search(limit);
+    }
+
+    // Links of one solve, with the rows chosen on the current path and on the first solution
+    private static class Matrix {
+        private final int[] left = LEFT.clone();
+        private final int[] right = RIGHT.clone();
+        private final int[] up = UP.clone();
+        private final int[] down = DOWN.clone();
+        private final int[] length = LENGTH.clone();
+
+        private final int[] path = new int[Board.CELLS];
+        private final int[] solution = new int[Board.CELLS];
+        private int solutionDepth = -1;
+        private final BooleanSupplier stop;
+
+        Matrix(BooleanSupplier stop) {
+            this.stop = stop;
+        }
+
+        // Unlinks the rows of candidates the board already ruled out, then selects the rows of the
+        // filled cells. Returns false if two filled cells claim the same column.
+        boolean load(Board board) {
+            for (int i = 0; i < Board.CELLS; ++i) {
+                if (board.getNumber(i) != 0) continue;
+                for (int m = ~board.getCandidates(i) & Cell.ALL_CANDIDATES; m != 0; m &= m - 1) {
+                    int first = FIRST_ROW_NODE + 4 * (i * Board.SIZE + Integer.numberOfTrailingZeros(m));
+                    for (int k = 0; k < 4; ++k) {
+                        int node = first + k;
+                        down[up[node]] = down[node];
+                        up[down[node]] = up[node];
+                        --length[COLUMN[node]];
+                    }
+                }
+            }
+
+            for (int i = 0; i < Board.CELLS; ++i) {
+                int number = board.getNumber(i);
+                if (number == 0) continue;
+                int first = FIRST_ROW_NODE + 4 * (i * Board.SIZE + number - 1);
+                for (int k = 0; k < 4; ++k) {
+                    int header = COLUMN[first + k];
+                    if (right[left[header]] != header) return false;
+                    cover(header);
+                }
+            }
+            return true;
+        }
+
+        // Counts solutions below the current state up to limit, keeping the rows of the first one
+        long search(long limit) {
+            return search(0, limit);
+        }
+
+        private long search(int depth, long limit) {
+            if (right[ROOT] == ROOT) {
+                if (solutionDepth < 0) {
+                    System.arraycopy(path, 0, solution, 0, depth);
+                    solutionDepth = depth;
+                }
+                return 1;
+            }
+
+            // Branch on the column with the fewest rows left
+            int column = right[ROOT];
+            for (int c = right[column]; c != ROOT; c = right[c]) {
+                if (length[c] < length[column]) column = c;
+            }
+            if (length[column] == 0) return 0;
+            if (stop != null && stop.getAsBoolean()) return 0;
+
+            long found = 0;
+            cover(column);
+            for (int row = down[column]; row != column && found < limit; row = down[row]) {
+                path[depth] = row;
+                for (int node = right[row]; node != row; node = right[node]) cover(COLUMN[node]);
+                found += search(depth + 1, limit - found);
+                for (int node = left[row]; node != row; node = left[node]) uncover(COLUMN[node]);
+            }
+            uncover(column);
+            return found;
+        }
+
+        private void cover(int column) {
+            right[left[column]] = right[column];
+            left[right[column]] = left[column];
+            for (int row = down[column]; row != column; row = down[row]) {
+                for (int node = right[row]; node != row; node = right[node]) {
+                    down[up[node]] = down[node];
+                    up[down[node]] = up[node];
+                    --length[COLUMN[node]];
+                }
+            }
+        }
+
+        private void uncover(int column) {
+            for (int row = up[column]; row != column; row = up[row]) {
+                for (int node = left[row]; node != row; node = left[node]) {
+                    ++length[COLUMN[node]];
+                    down[up[node]] = node;
+                    up[down[node]] = node;
+                }
+            }
+            right[left[column]] = column;
+            left[right[column]] = column;
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package solver.strategies;
+
+import solver.com.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+public class DepthFirstSearch {
+    private final PropagationEngine engine;
+    // Tries the candidates of a branching cell in random order instead of lowest first
+    private final boolean randomOrder;
+    // Guesses propagated, by the search and by callers expanding subtrees; shared by every thread
+    private final LongAdder nodes = new LongAdder();
+
+    // Lets a search be stopped by other workers, see search(Board, Coordinator)
+    public interface Coordinator {
+        // Asked at every node; true abandons the search, which then returns false
+        boolean shouldStop();
+    }
+
+    // A coordinator that can also take untried branches off the search to hand to other workers.
+    // The search drops every branch it hands over, so one cannot ask for work without taking it.
+    public interface SplittingCoordinator extends Coordinator {
+        // Asked at every branching point
+        boolean wantsWork();
+
+        // Takes a propagated board holding one untried branch, free of contradictions. Only called
+        // after wantsWork returned true.
+        void take(Board branch);
+    }
+
+    public DepthFirstSearch(PropagationEngine engine) {
+        this(engine, false);
+    }
+
+    public DepthFirstSearch(PropagationEngine engine, boolean randomOrder) {
+        this.engine = engine;
+        this.randomOrder = randomOrder;
+    }
+
+    public long getNodes() {
+        return nodes.sum();
+    }
+
+    // Solves the board in place. A single board is mutated along the search and every
+    // change is recorded on a trail, so backtracking undoes changes instead of copying boards.
+    public boolean search(Board board) {
+        return search(board, null);
+    }
+
+    // Same search, but stopped when the coordinator says so. A splitting coordinator that wants
+    // work is given the untried branches of the shallowest open frame, the largest subtrees left,
+    // instead of searching them here.
+    public boolean search(Board board, Coordinator coordinator) {
+        SplittingCoordinator splitter = coordinator instanceof SplittingCoordinator ? (SplittingCoordinator) coordinator : null;
+        Trail trail = new Trail();
+
+        // One frame per guess: the branching cell, its untried candidates and the trail mark before it
+        int[] cells = new int[Board.CELLS];
+        int[] untried = new int[Board.CELLS];
+        int[] marks = new int[Board.CELLS];
+        int depth = 0;
+
+        board.setTrail(trail);
+        try {
+            boolean deadEnd = board.hasContradiction();
+            while (true) {
+                if (coordinator != null && coordinator.shouldStop()) {
+                    trail.undo(board, 0);
+                    return false;
+                }
+
+                // Unless propagation already emptied a cell, branch on the MRV cell
+                if (!deadEnd) {
+                    int rootIndex = board.getMinimumRemainingValuesCell();
+
+                    // Solution found
+                    if (rootIndex == -1) return true;
+
+                    cells[depth] = rootIndex;
+                    untried[depth] = board.getCandidates(rootIndex);
+                    marks[depth] = trail.mark();
+                    ++depth;
+
+                    if (splitter != null && splitter.wantsWork()) split(board, trail, cells, untried, marks, depth, splitter);
+                }
+
+                // Drop exhausted frames, then try the next candidate of the deepest open one
+                while (depth > 0 && untried[depth - 1] == 0) --depth;
+                if (depth == 0) {
+                    trail.undo(board, 0);
+                    return false;
+                }
+
+                int frame = depth - 1;
+                int bit = randomOrder ? randomBit(untried[frame]) : untried[frame] & -untried[frame];
+                int value = Cell.first(bit);
+                untried[frame] &= ~bit;
+                trail.undo(board, marks[frame]);
+                // The restored state is the fixpoint the frame was opened at, so nothing is dirty
+                board.takeDirtyUnits();
+
+                guess(board, cells[frame], value);
+
+                deadEnd = board.hasContradiction();
+            }
+        }
+        finally {
+            board.setTrail(null);
+        }
+    }
+
+    // The frame states are not kept, so the split frame's state is rebuilt on a copy of the board
+    // by rewinding the trail, which happens rarely enough that its cost does not matter
+    private void split(Board board, Trail trail, int[] cells, int[] untried, int[] marks, int depth, SplittingCoordinator coordinator) {
+        int frame = 0;
+        while (frame < depth && untried[frame] == 0) ++frame;
+        if (frame == depth) return;
+        // The frame just opened has not tried any branch yet; keep its first one here
+        int kept = frame == depth - 1 ? untried[frame] & -untried[frame] : 0;
+        int given = untried[frame] & ~kept;
+        if (given == 0) return;
+
+        Board base = Board.copy(board);
+        trail.rewind(base, marks[frame]);
+        base.takeDirtyUnits();
+        for (int mask = given; mask != 0; mask &= mask - 1) {
+            Board branch = (mask & (mask - 1)) == 0 ? base : Board.copy(base);
+            guess(branch, cells[frame], Cell.first(mask));
+            if (!branch.hasContradiction()) coordinator.take(branch);
+        }
+        untried[frame] = kept;
+    }
+
+    private static int randomBit(int mask) {
+        for (int skip = ThreadLocalRandom.current().nextInt(Integer.bitCount(mask)); skip > 0; --skip) mask &= mask - 1;
+        return mask & -mask;
+    }
+
+    // Places value at cellIndex and propagates it, counting it as a search node
+    public void guess(Board board, int cellIndex, int value) {
+        nodes.increment();
+        engine.assign(board, cellIndex, value);
+    }
+}
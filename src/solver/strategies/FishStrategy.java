@@ -0,0 +1,94 @@
+package solver.strategies;
+
+import solver.com.*;
+
+import java.util.concurrent.atomic.LongAdder;
+
+public class FishStrategy implements GlobalStrategy, UnitStrategy {
+    // Largest fish searched: 2 for X-Wing, 3 for Swordfish, 4 for Jellyfish
+    private final int maxSize;
+    // Shared by every thread running this strategy
+    private final LongAdder eliminations = new LongAdder();
+    // Positions of the digit in every base line, one array per thread since the
+    // strategy is shared by every search thread
+    private final ThreadLocal<int[]> lines = ThreadLocal.withInitial(() -> new int[Board.SIZE]);
+
+    public FishStrategy(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    // Candidates removed since this strategy was created
+    public long getEliminations() {
+        return eliminations.sum();
+    }
+
+    @Override
+    public String getName() {
+        return "FishStrategy";
+    }
+
+    @Override
+    public boolean perform(Board board) {
+        return perform(board, Units.ALL_UNITS);
+    }
+
+    // A fish spans the whole board, so any changed row or column means checking every digit again
+    @Override
+    public boolean perform(Board board, int units) {
+        if ((units & ((1 << 2 * Board.SIZE) - 1)) == 0) return false;
+        int count = 0;
+        int[] lines = this.lines.get();
+
+        for (int digit = Cell.MIN_VAL; digit <= Cell.MAX_VAL && !board.hasContradiction(); ++digit) {
+            // Rows as base lines eliminate along columns, then the other way around
+            count += perform(board, digit, lines, 0, Board.SIZE);
+            if (board.hasContradiction()) break;
+            count += perform(board, digit, lines, Board.SIZE, 0);
+        }
+
+        if (count > 0) eliminations.add(count);
+        return count > 0;
+    }
+
+    // The row units of a digit hold its column positions row by row, so together they are the
+    // digit's 81-cell bitboard; the column units hold the same board transposed
+    private int perform(Board board, int digit, int[] lines, int baseUnits, int coverUnits) {
+        int candidates = 0;
+        for (int k = 0; k < Board.SIZE; ++k) {
+            lines[k] = board.getDigitPositions(baseUnits + k, digit);
+            // A line with a single position is a hidden single, not part of a fish
+            int size = Integer.bitCount(lines[k]);
+            if (size >= 2 && size <= maxSize) candidates |= 1 << k;
+        }
+        if (Integer.bitCount(candidates) < 2) return 0;
+        return search(board, digit, lines, coverUnits, candidates, 0, 0);
+    }
+
+    // Extends the base lines chosen so far with lines from remaining. Once n base lines fit
+    // in n cover lines, the digit is removed from the cover lines outside the base lines.
+    private int search(Board board, int digit, int[] lines, int coverUnits, int remaining, int chosen, int union) {
+        for (int m = remaining; m != 0; m &= m - 1) {
+            int k = Integer.numberOfTrailingZeros(m);
+            int next = union | lines[k];
+            int size = Integer.bitCount(next);
+            if (size > maxSize) continue;
+
+            int base = chosen | (1 << k);
+            if (size == Integer.bitCount(base)) {
+                int count = 0;
+                int mask = Cell.bit(digit);
+                for (int c = next; c != 0; c &= c - 1) {
+                    int unit = coverUnits + Integer.numberOfTrailingZeros(c);
+                    for (int p = board.getDigitPositions(unit, digit) & ~base; p != 0; p &= p - 1) {
+                        if (board.removeCandidates(Units.UNITS[unit][Integer.numberOfTrailingZeros(p)], mask)) ++count;
+                    }
+                }
+                if (count > 0) return count;
+            }
+
+            int count = search(board, digit, lines, coverUnits, m & (m - 1), base, next);
+            if (count > 0) return count;
+        }
+        return 0;
+    }
+}
@@ -5,4 +5,11 @@ import solver.com.Board;
 public interface GlobalStrategy {
 
     boolean perform(Board board);
+
+    // Key of the strategy's statistics in a StrategyScheduler and its saved profiles. Strategies
+    // that are scheduled return a fixed name of their own, so renaming or moving the class keeps
+    // old profiles; the default, the full class name, cannot clash with another class.
+    default String getName() {
+        return getClass().getName();
+    }
 }
@@ -0,0 +1,38 @@
+package solver.strategies;
+
+import solver.com.*;
+
+public class HiddenSingleStrategy implements GlobalStrategy, UnitStrategy {
+    private final LocalHiddenSingleStrategy lhss = new LocalHiddenSingleStrategy();
+
+    @Override
+    public String getName() {
+        return "HiddenSingleStrategy";
+    }
+
+    @Override
+    public boolean perform(Board board) {
+        boolean flag = false;
+
+        // The units of the cover cells are all 27 units. Repeat while placements reveal new singles.
+        boolean result = true;
+        while (result && !board.hasContradiction()) {
+            result = lhss.perform(board, Units.COVER);
+            if (result) flag = true;
+        }
+
+        return flag;
+    }
+
+    // A single pass over the units; placements mark their units as changed for the next one
+    @Override
+    public boolean perform(Board board, int units) {
+        boolean flag = false;
+
+        for (int m = units; m != 0 && !board.hasContradiction(); m &= m - 1) {
+            if (lhss.performUnit(board, Integer.numberOfTrailingZeros(m))) flag = true;
+        }
+
+        return flag;
+    }
+}
@@ -0,0 +1,87 @@
+package solver.strategies;
+
+import solver.com.*;
+
+import java.util.concurrent.atomic.LongAdder;
+
+public class HiddenSubsetStrategy implements GlobalStrategy, UnitStrategy {
+    // Largest subset searched: 2 for pairs, 3 for triples, 4 for quads
+    private final int maxSize;
+    // Shared by every thread running this strategy
+    private final LongAdder eliminations = new LongAdder();
+    // Positions of every missing digit of the unit being searched, one array per thread since the
+    // strategy is shared by every search thread
+    private final ThreadLocal<int[]> positions = ThreadLocal.withInitial(() -> new int[Board.SIZE]);
+
+    public HiddenSubsetStrategy(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    // Candidates removed since this strategy was created
+    public long getEliminations() {
+        return eliminations.sum();
+    }
+
+    @Override
+    public String getName() {
+        return "HiddenSubsetStrategy";
+    }
+
+    @Override
+    public boolean perform(Board board) {
+        return perform(board, Units.ALL_UNITS);
+    }
+
+    // Finds n missing digits of a unit that together fit in exactly n cells,
+    // then removes every other digit from those cells
+    @Override
+    public boolean perform(Board board, int units) {
+        int count = 0;
+        int[] positions = this.positions.get();
+
+        for (int u = units; u != 0 && !board.hasContradiction(); u &= u - 1) {
+            int unit = Integer.numberOfTrailingZeros(u);
+            int missing = Cell.ALL_CANDIDATES & ~board.getPlacedDigits(unit);
+            int small = 0;
+            for (int m = missing; m != 0; m &= m - 1) {
+                int d = Integer.numberOfTrailingZeros(m);
+                positions[d] = board.getDigitPositions(unit, d + 1);
+                // Only digits with few positions can take part in a subset
+                if (Integer.bitCount(positions[d]) <= maxSize) small |= 1 << d;
+            }
+
+            // A subset of every missing digit removes nothing
+            if (Integer.bitCount(small) < 2 || Integer.bitCount(missing) <= 2) continue;
+            count += search(board, Units.UNITS[unit], positions, missing, small, 0, 0);
+        }
+
+        if (count > 0) eliminations.add(count);
+        return count > 0;
+    }
+
+    // Extends the digits chosen so far with digits from remaining, pruning as soon
+    // as their positions outnumber the largest subset size
+    private int search(Board board, int[] cells, int[] positions, int missing, int remaining, int chosen, int union) {
+        for (int m = remaining; m != 0; m &= m - 1) {
+            int d = Integer.numberOfTrailingZeros(m);
+            int next = union | positions[d];
+            int size = Integer.bitCount(next);
+            if (size > maxSize) continue;
+
+            int subset = chosen | (1 << d);
+            if (size == Integer.bitCount(subset) && subset != missing) {
+                int count = 0;
+                for (int u = next; u != 0; u &= u - 1) {
+                    int index = cells[Integer.numberOfTrailingZeros(u)];
+                    count += Integer.bitCount(board.getCandidates(index) & ~subset);
+                    board.removeCandidates(index, ~subset & Cell.ALL_CANDIDATES);
+                }
+                if (count > 0) return count;
+            }
+
+            int count = search(board, cells, positions, missing, m & (m - 1), subset, next);
+            if (count > 0) return count;
+        }
+        return 0;
+    }
+}
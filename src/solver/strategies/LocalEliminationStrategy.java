@@ -6,30 +6,19 @@ public class LocalEliminationStrategy implements LocalStrategy {
 
     @Override
     public boolean perform(Board board, int[] cellIndexes) {
-        int cellIndex = cellIndexes[0];
-        int row = cellIndex / Board.SIZE;
-        int col = cellIndex % Board.SIZE;
-        Cell cell = board.cells[row][col];
-        int boxRow = 3 * (row / 3);
-        int boxCol = 3 * (col / 3);
-
-        boolean flag = false;
+        return perform(board, cellIndexes[0]);
+    }
 
-        for (int k = 0; k < Board.SIZE; ++k) {
-            if (board.cells[row][k].candidates.contains(cell.number)) {
-                board.cells[row][k].candidates.remove(Integer.valueOf(cell.number));
-                flag = true;
-            }
+    // The same for one cell, without an array per call. Holds no state, so one instance can
+    // serve every thread.
+    public boolean perform(Board board, int cellIndex) {
+        int mask = Cell.bit(board.getNumber(cellIndex));
+        int[] peers = Units.PEERS[cellIndex];
 
-            if (board.cells[k][col].candidates.contains(cell.number)) {
-                board.cells[k][col].candidates.remove(Integer.valueOf(cell.number));
-                flag = true;
-            }
+        boolean flag = false;
 
-            if (board.cells[boxRow + (k / 3)][boxCol + (k % 3)].candidates.contains((cell.number))) {
-                board.cells[boxRow + (k / 3)][boxCol + (k % 3)].candidates.remove(Integer.valueOf(cell.number));
-                flag = true;
-            }
+        for (int k = 0; k < peers.length; ++k) {
+            if (board.removeCandidates(peers[k], mask)) flag = true;
         }
 
         return flag;
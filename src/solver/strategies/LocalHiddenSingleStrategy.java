@@ -0,0 +1,59 @@
+package solver.strategies;
+
+import solver.com.*;
+
+public class LocalHiddenSingleStrategy implements LocalStrategy {
+    private final LocalEliminationStrategy les = new LocalEliminationStrategy();
+
+    // Places every hidden single found in the row, column and box of the given cells
+    @Override
+    public boolean perform(Board board, int[] cellIndexes) {
+        boolean flag = false;
+
+        for (int cellIndex : cellIndexes) {
+            int[] units = Units.CELL_UNITS[cellIndex];
+            for (int k = 0; k < units.length; ++k) {
+                if (performUnit(board, units[k])) flag = true;
+                if (board.hasContradiction()) return flag;
+            }
+        }
+
+        return flag;
+    }
+
+    boolean performUnit(Board board, int unit) {
+        boolean flag = false;
+
+        for (int missing = Cell.ALL_CANDIDATES & ~board.getPlacedDigits(unit); missing != 0; missing &= missing - 1) {
+            int digit = Cell.first(missing);
+            int positions = board.getDigitPositions(unit, digit);
+
+            // The digit has nowhere left to go in this unit
+            if (positions == 0) {
+                markContradiction(board, unit);
+                return flag;
+            }
+
+            // Exactly one position left
+            if ((positions & (positions - 1)) == 0) {
+                int index = Units.UNITS[unit][Integer.numberOfTrailingZeros(positions)];
+                board.setNumber(index, digit);
+                les.perform(board, index);
+                flag = true;
+                if (board.hasContradiction()) return flag;
+            }
+        }
+
+        return flag;
+    }
+
+    // Empties an open cell of the unit, so the contradiction is reported by Board.hasContradiction
+    private void markContradiction(Board board, int unit) {
+        for (int index : Units.UNITS[unit]) {
+            if (board.getNumber(index) == 0) {
+                board.setCandidates(index, 0);
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package solver.strategies;
+
+import solver.com.*;
+
+import java.util.concurrent.atomic.LongAdder;
+
+public class LockedCandidatesStrategy implements GlobalStrategy, UnitStrategy {
+    // Positions of each box row and box column, see Units.UNITS for the position order in a box
+    private static final int[] BOX_ROWS = {0007, 0070, 0700};
+    private static final int[] BOX_COLS = {0111, 0222, 0444};
+
+    // Shared by every thread running this strategy
+    private final LongAdder eliminations = new LongAdder();
+
+    // Candidates removed since this strategy was created
+    public long getEliminations() {
+        return eliminations.sum();
+    }
+
+    @Override
+    public String getName() {
+        return "LockedCandidatesStrategy";
+    }
+
+    @Override
+    public boolean perform(Board board) {
+        return perform(board, Units.ALL_UNITS);
+    }
+
+    // Checks the boxes that are in the unit set or cross one of its rows or columns
+    @Override
+    public boolean perform(Board board, int units) {
+        int count = 0;
+
+        for (int b = 0; b < Board.SIZE; ++b) {
+            int boxUnit = 2 * Board.SIZE + b;
+            int boxRow = Units.BOX * (b / Units.BOX);
+            int boxCol = Units.BOX * (b % Units.BOX);
+            if ((units & (1 << boxUnit | 7 << boxRow | 7 << (Board.SIZE + boxCol))) == 0) continue;
+
+            for (int missing = Cell.ALL_CANDIDATES & ~board.getPlacedDigits(boxUnit); missing != 0; missing &= missing - 1) {
+                int digit = Cell.first(missing);
+                int positions = board.getDigitPositions(boxUnit, digit);
+                if (positions == 0) continue;
+
+                for (int k = 0; k < Units.BOX; ++k) {
+                    // Pointing: the digit is confined to one row or column of the box,
+                    // so the rest of that line cannot hold it
+                    if ((positions & ~BOX_ROWS[k]) == 0) {
+                        count += removeOutside(board, boxRow + k, BOX_ROWS[0] << boxCol, digit);
+                    }
+                    if ((positions & ~BOX_COLS[k]) == 0) {
+                        count += removeOutside(board, Board.SIZE + boxCol + k, BOX_ROWS[0] << boxRow, digit);
+                    }
+
+                    // Claiming: the row or column of the box has the digit only inside the box,
+                    // so the rest of the box cannot hold it
+                    int row = boxRow + k;
+                    int rowPositions = board.getDigitPositions(row, digit);
+                    if (rowPositions != 0 && (rowPositions & ~(BOX_ROWS[0] << boxCol)) == 0) {
+                        count += removeOutside(board, boxUnit, BOX_ROWS[k], digit);
+                    }
+                    int col = Board.SIZE + boxCol + k;
+                    int colPositions = board.getDigitPositions(col, digit);
+                    if (colPositions != 0 && (colPositions & ~(BOX_ROWS[0] << boxRow)) == 0) {
+                        count += removeOutside(board, boxUnit, BOX_COLS[k], digit);
+                    }
+                }
+            }
+
+            if (board.hasContradiction()) break;
+        }
+
+        if (count > 0) eliminations.add(count);
+        return count > 0;
+    }
+
+    // Removes digit from the cells of unit whose positions are not in keep
+    private int removeOutside(Board board, int unit, int keep, int digit) {
+        int count = 0;
+        int mask = Cell.bit(digit);
+        for (int m = board.getDigitPositions(unit, digit) & ~keep; m != 0; m &= m - 1) {
+            if (board.removeCandidates(Units.UNITS[unit][Integer.numberOfTrailingZeros(m)], mask)) ++count;
+        }
+        return count;
+    }
+}
@@ -3,36 +3,23 @@ package solver.strategies;
 import solver.com.*;
 
 public class NakedSingleStrategy implements GlobalStrategy {
+    private final LocalEliminationStrategy les = new LocalEliminationStrategy();
 
     @Override
     public boolean perform(Board board) {
-        LocalEliminationStrategy les = new LocalEliminationStrategy();
         boolean flag = false;
 
-        int index = getNextNakedSingle(board);
-        while (index != -1) {
+        // Each placement eliminates from its peers, which feeds new singles into the board's
+        // single-candidate bucket, so this runs in time proportional to the eliminations made
+        int index = board.getNakedSingle();
+        while (index != -1 && !board.hasContradiction()) {
             flag = true;
-            int[] localConfig = {index};
-            int row = index / Board.SIZE;
-            int col = index % Board.SIZE;
-            Cell cell = board.cells[row][col];
-            board.setNumber(row, col, cell.candidates.get(0));
-            les.perform(board, localConfig);
+            board.setNumber(index, Cell.first(board.getCandidates(index)));
+            les.perform(board, index);
 
-            index = getNextNakedSingle(board);
+            index = board.getNakedSingle();
         }
 
         return flag;
     }
-
-    private int getNextNakedSingle(Board board) {
-        for (int i = 0; i < Board.SIZE; ++i) {
-            for (int j = 0; j < Board.SIZE; ++j) {
-                if (board.cells[i][j].candidates.size() == 1) {
-                    return i * Board.SIZE + j;
-                }
-            }
-        }
-        return -1;
-    }
 }
@@ -0,0 +1,87 @@
+package solver.strategies;
+
+import solver.com.*;
+
+import java.util.concurrent.atomic.LongAdder;
+
+public class NakedSubsetStrategy implements GlobalStrategy, UnitStrategy {
+    // Largest subset searched: 2 for pairs, 3 for triples, 4 for quads
+    private final int maxSize;
+    // Shared by every thread running this strategy
+    private final LongAdder eliminations = new LongAdder();
+    // Candidates of every open cell of the unit being searched, one array per thread since the
+    // strategy is shared by every search thread
+    private final ThreadLocal<int[]> masks = ThreadLocal.withInitial(() -> new int[Board.SIZE]);
+
+    public NakedSubsetStrategy(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    // Candidates removed since this strategy was created
+    public long getEliminations() {
+        return eliminations.sum();
+    }
+
+    @Override
+    public String getName() {
+        return "NakedSubsetStrategy";
+    }
+
+    @Override
+    public boolean perform(Board board) {
+        return perform(board, Units.ALL_UNITS);
+    }
+
+    // Finds n open cells of a unit whose candidates together are exactly n digits,
+    // then removes those digits from the other open cells of the unit
+    @Override
+    public boolean perform(Board board, int units) {
+        int count = 0;
+        int[] masks = this.masks.get();
+
+        for (int u = units; u != 0 && !board.hasContradiction(); u &= u - 1) {
+            int unit = Integer.numberOfTrailingZeros(u);
+            int[] cells = Units.UNITS[unit];
+            int open = 0;
+            int small = 0;
+            for (int p = 0; p < Board.SIZE; ++p) {
+                if (board.getNumber(cells[p]) != 0) continue;
+                masks[p] = board.getCandidates(cells[p]);
+                open |= 1 << p;
+                // Only cells with few candidates can take part in a subset
+                if (Integer.bitCount(masks[p]) <= maxSize) small |= 1 << p;
+            }
+
+            // A subset of every open cell removes nothing
+            if (Integer.bitCount(small) < 2 || Integer.bitCount(open) <= 2) continue;
+            count += search(board, cells, masks, open, small, 0, 0);
+        }
+
+        if (count > 0) eliminations.add(count);
+        return count > 0;
+    }
+
+    // Extends the cells chosen so far with cells from remaining, pruning as soon
+    // as their candidates outnumber the largest subset size
+    private int search(Board board, int[] cells, int[] masks, int open, int remaining, int chosen, int union) {
+        for (int m = remaining; m != 0; m &= m - 1) {
+            int p = Integer.numberOfTrailingZeros(m);
+            int next = union | masks[p];
+            int size = Integer.bitCount(next);
+            if (size > maxSize) continue;
+
+            int subset = chosen | (1 << p);
+            if (size == Integer.bitCount(subset) && subset != open) {
+                int count = 0;
+                for (int o = open & ~subset; o != 0; o &= o - 1) {
+                    if (board.removeCandidates(cells[Integer.numberOfTrailingZeros(o)], next)) ++count;
+                }
+                if (count > 0) return count;
+            }
+
+            int count = search(board, cells, masks, open, m & (m - 1), subset, next);
+            if (count > 0) return count;
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,182 @@
+package solver.strategies;
+
+import solver.com.Board;
+import solver.com.WorkerPool;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+
+// Races several search engines on one puzzle, each on its own copy of the board. Puzzles that
+// are hard for one engine are often easy for another, so the race takes about as long as the
+// best engine for each puzzle. The first engine to finish decides, with or without a solution,
+// since every engine searches the whole tree, and the others stop at their next node.
+public class PortfolioStrategy implements StoppableStrategy {
+    public enum Engine {
+        // MRV branching, candidates lowest first
+        BACKTRACKING,
+        // MRV branching, candidates in random order
+        RANDOM_ORDER,
+        // Pure exact cover: starts from the board the solver propagated, but runs none of the
+        // propagation strategies while it searches, so its wins are against engines that do
+        DANCING_LINKS
+    }
+
+    private final String[] names;
+    private final StoppableStrategy[] strategies;
+    private final LongAdder[] wins;
+    private final ForkJoinPool pool;
+
+    // Any strategies that can be stopped, by name. The first runs on the calling thread and the
+    // others in the pool, or in the shared WorkerPool if null, which should have a worker for
+    // each of them to race for real. The pool is never shut down by the strategy.
+    public PortfolioStrategy(Map<String, StoppableStrategy> strategies, ForkJoinPool pool) {
+        if (strategies.isEmpty()) throw new IllegalArgumentException("A portfolio needs at least one strategy.");
+        this.names = strategies.keySet().toArray(new String[0]);
+        this.strategies = strategies.values().toArray(new StoppableStrategy[0]);
+        this.wins = new LongAdder[this.strategies.length];
+        for (int k = 0; k < wins.length; ++k) wins[k] = new LongAdder();
+        this.pool = pool != null ? pool : WorkerPool.get();
+    }
+
+    // The backtracking engines share the propagation strategies, so their elimination counts
+    // cover every run; DANCING_LINKS ignores them. Null disables a propagation strategy.
+    public PortfolioStrategy(
+            List<Engine> engines,
+            NakedSingleStrategy NSS,
+            HiddenSingleStrategy HSS,
+            LockedCandidatesStrategy LCS,
+            NakedSubsetStrategy NSubS,
+            HiddenSubsetStrategy HSubS,
+            FishStrategy FS,
+            StrategyScheduler scheduler,
+            ForkJoinPool pool) {
+        this(create(engines, NSS, HSS, LCS, NSubS, HSubS, FS, scheduler), pool);
+    }
+
+    private static Map<String, StoppableStrategy> create(
+            List<Engine> engines,
+            NakedSingleStrategy NSS,
+            HiddenSingleStrategy HSS,
+            LockedCandidatesStrategy LCS,
+            NakedSubsetStrategy NSubS,
+            HiddenSubsetStrategy HSubS,
+            FishStrategy FS,
+            StrategyScheduler scheduler) {
+        Map<String, StoppableStrategy> strategies = new LinkedHashMap<>();
+        for (Engine engine : engines) {
+            switch (engine) {
+                case BACKTRACKING:
+                    strategies.put(engine.name(), new BacktrackingSequentialStrategy(0, NSS, HSS, LCS, NSubS, HSubS, FS, scheduler, false));
+                    break;
+                case RANDOM_ORDER:
+                    strategies.put(engine.name(), new BacktrackingSequentialStrategy(0, NSS, HSS, LCS, NSubS, HSubS, FS, scheduler, true));
+                    break;
+                case DANCING_LINKS:
+                    strategies.put(engine.name(), new DancingLinksStrategy());
+                    break;
+            }
+        }
+        return strategies;
+    }
+
+    // Engine names separated by commas, as in "BACKTRACKING, DANCING_LINKS"; blank for none
+    public static List<Engine> parseEngines(String list) {
+        List<Engine> engines = new ArrayList<>();
+        for (String name : list.split(",")) {
+            if (name.isBlank()) continue;
+            Engine engine = Engine.valueOf(name.trim().toUpperCase());
+            if (!engines.contains(engine)) engines.add(engine);
+        }
+        return engines;
+    }
+
+    // Races won by each strategy since this one was created
+    public Map<String, Long> getWins() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (int k = 0; k < names.length; ++k) counts.put(names[k], wins[k].sum());
+        return counts;
+    }
+
+    @Override
+    public boolean perform(Board board) {
+        return perform(board, null);
+    }
+
+    @Override
+    public boolean perform(Board board, BooleanSupplier stop) {
+        Race race = new Race(stop);
+        // Copied up front, since the board gets the solution while late entrants may still start
+        for (int k = 1; k < strategies.length; ++k) {
+            int entrant = k;
+            Board copy = Board.copy(board);
+            pool.execute(() -> race.run(entrant, copy));
+        }
+        race.run(0, Board.copy(board));
+
+        // Released by the first entrant to finish, or right away if stopped from outside. The
+        // caller may be a worker of the pool, as in a batch, so it blocks as a managed blocker and
+        // the pool can compensate for it instead of running short of workers for the entrants.
+        try {
+            ForkJoinPool.managedBlock(race);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            race.done.set(true);
+            return false;
+        }
+
+        Board solved = race.solution.get();
+        if (solved == null) return false;
+        Board.copyTo(solved, board);
+        return true;
+    }
+
+    // State of one perform, shared by its entrants
+    private class Race implements ForkJoinPool.ManagedBlocker {
+        private final BooleanSupplier stop;
+        private final AtomicBoolean done = new AtomicBoolean();
+        private final AtomicReference<Board> solution = new AtomicReference<>();
+        private final CountDownLatch finished = new CountDownLatch(1);
+
+        Race(BooleanSupplier stop) {
+            this.stop = stop;
+        }
+
+        private boolean shouldStop() {
+            if (done.get()) return true;
+            // Stopped from outside: end the race without a winner
+            if (stop != null && stop.getAsBoolean() && done.compareAndSet(false, true)) finished.countDown();
+            return done.get();
+        }
+
+        @Override
+        public boolean isReleasable() {
+            return finished.getCount() == 0;
+        }
+
+        @Override
+        public boolean block() throws InterruptedException {
+            finished.await();
+            return true;
+        }
+
+        void run(int entrant, Board copy) {
+            if (shouldStop()) return;
+            boolean solved = strategies[entrant].perform(copy, this::shouldStop);
+            // Entrants stopped by the winner find the race over already
+            if (!done.compareAndSet(false, true)) return;
+
+            if (solved) solution.set(copy);
+            wins[entrant].increment();
+            finished.countDown();
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package solver.strategies;
+
+import solver.com.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Runs the enabled strategies to a fixpoint, only looking again at units that changed.
+// Naked singles come from the board's single-candidate bucket; every other strategy keeps the
+// set of units changed since it last ran and skips the rest of the board.
+public class PropagationEngine {
+    // Null to disable it. Always first: it drains the worklist the other strategies feed.
+    private final NakedSingleStrategy NSS;
+    // Enabled strategies, cheapest first. Those that can look at only some units are also in
+    // unitStrategies; the others run over the whole board whenever any unit changed.
+    private final GlobalStrategy[] strategies;
+    private final UnitStrategy[] unitStrategies;
+    // Null to keep the order above
+    private final StrategyScheduler scheduler;
+    private final StrategyScheduler.Stats[] stats;
+    private final LocalEliminationStrategy les = new LocalEliminationStrategy();
+    // Units changed since each strategy last ran. The engine is shared by every thread searching
+    // with it, so each thread gets its own, sized once and cleared on every propagation.
+    private final ThreadLocal<int[]> pendingUnits;
+    // Replaced as a whole whenever the scheduler learns something
+    private volatile Schedule schedule;
+
+    private static final class Schedule {
+        final int[] order;
+        final boolean[] enabled;
+
+        Schedule(int[] order, boolean[] enabled) {
+            this.order = order;
+            this.enabled = enabled;
+        }
+    }
+
+    public PropagationEngine(
+            NakedSingleStrategy NSS,
+            HiddenSingleStrategy HSS,
+            LockedCandidatesStrategy LCS,
+            NakedSubsetStrategy NSubS,
+            HiddenSubsetStrategy HSubS,
+            FishStrategy FS) {
+        this(NSS, HSS, LCS, NSubS, HSubS, FS, null);
+    }
+
+    public PropagationEngine(
+            NakedSingleStrategy NSS,
+            HiddenSingleStrategy HSS,
+            LockedCandidatesStrategy LCS,
+            NakedSubsetStrategy NSubS,
+            HiddenSubsetStrategy HSubS,
+            FishStrategy FS,
+            StrategyScheduler scheduler) {
+        this(NSS, enabled(HSS, LCS, NSubS, HSubS, FS), scheduler);
+    }
+
+    // Any strategy can be scheduled; null entries are ignored
+    public PropagationEngine(NakedSingleStrategy NSS, List<GlobalStrategy> strategies, StrategyScheduler scheduler) {
+        this.NSS = NSS;
+        this.strategies = enabled(strategies.toArray(new GlobalStrategy[0])).toArray(new GlobalStrategy[0]);
+        this.unitStrategies = new UnitStrategy[this.strategies.length];
+        for (int k = 0; k < this.strategies.length; ++k) {
+            if (this.strategies[k] instanceof UnitStrategy) unitStrategies[k] = (UnitStrategy) this.strategies[k];
+        }
+
+        this.scheduler = scheduler;
+        this.stats = new StrategyScheduler.Stats[this.strategies.length];
+        for (int k = 0; k < stats.length; ++k) {
+            if (scheduler != null) stats[k] = scheduler.register(this.strategies[k]);
+        }
+        this.schedule = schedule();
+        int count = this.strategies.length;
+        this.pendingUnits = ThreadLocal.withInitial(() -> new int[count]);
+    }
+
+    private static List<GlobalStrategy> enabled(GlobalStrategy... strategies) {
+        List<GlobalStrategy> enabled = new ArrayList<>();
+        for (GlobalStrategy strategy : strategies) {
+            if (strategy != null) enabled.add(strategy);
+        }
+        return enabled;
+    }
+
+    private Schedule schedule() {
+        int[] order = new int[strategies.length];
+        boolean[] enabled = new boolean[strategies.length];
+        for (int k = 0; k < order.length; ++k) {
+            order[k] = k;
+            enabled[k] = true;
+        }
+        if (scheduler == null) return new Schedule(order, enabled);
+
+        for (int k = 0; k < order.length; ++k) {
+            enabled[k] = scheduler.isEnabled(stats[k], stats);
+        }
+        return new Schedule(scheduler.order(stats), enabled);
+    }
+
+    // Places value at cellIndex, eliminates it from the peers and propagates the consequences
+    public void assign(Board board, int cellIndex, int value) {
+        board.setNumber(cellIndex, value);
+        les.perform(board, cellIndex);
+        propagate(board);
+    }
+
+    // Runs until no strategy finds anything or a contradiction shows up. Whenever a strategy
+    // makes progress, the ones before it in the order get the first look at the units it changed.
+    public void propagate(Board board) {
+        Schedule schedule = this.schedule;
+        // A sampled propagation times every strategy, skipped ones included, so they can come back
+        boolean sample = scheduler != null && !scheduler.isFrozen()
+                && ThreadLocalRandom.current().nextInt(StrategyScheduler.SAMPLE_RATE) == 0;
+        int[] pending = pendingUnits.get();
+        Arrays.fill(pending, 0);
+
+        while (!board.hasContradiction()) {
+            if (NSS != null) NSS.perform(board);
+            if (board.hasContradiction()) break;
+
+            int dirty = board.takeDirtyUnits();
+            for (int k = 0; k < strategies.length; ++k) pending[k] |= dirty;
+
+            boolean progress = false;
+            for (int i = 0; i < strategies.length && !progress; ++i) {
+                int k = schedule.order[i];
+                if (pending[k] == 0 || !(sample || schedule.enabled[k])) continue;
+                int units = pending[k];
+                pending[k] = 0;
+
+                if (sample) {
+                    long eliminations = board.getEliminations();
+                    long start = System.nanoTime();
+                    progress = perform(board, k, units);
+                    stats[k].nanos.add(System.nanoTime() - start);
+                    stats[k].eliminations.add(board.getEliminations() - eliminations);
+                    stats[k].samples.increment();
+                }
+                else {
+                    progress = perform(board, k, units);
+                }
+            }
+            if (!progress) break;
+        }
+
+        if (sample) this.schedule = schedule();
+    }
+
+    private boolean perform(Board board, int k, int units) {
+        if (unitStrategies[k] != null) return unitStrategies[k].perform(board, units);
+        return strategies[k].perform(board);
+    }
+}
@@ -0,0 +1,11 @@
+package solver.strategies;
+
+import solver.com.Board;
+
+import java.util.function.BooleanSupplier;
+
+public interface StoppableStrategy extends GlobalStrategy {
+
+    // Gives up and returns false once stop returns true, asked at every node. Null never stops.
+    boolean perform(Board board, BooleanSupplier stop);
+}
@@ -0,0 +1,190 @@
+package solver.strategies;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonPrimitive;
+
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Learns how many candidates each propagation strategy removes per nanosecond on the puzzles
+// actually solved, so engines can run the most productive ones first and skip the ones that
+// cost more than they find. Strategies are known by their getName, so one scheduler can be
+// shared by every engine of a solver and the learned profile can be saved and loaded again.
+public class StrategyScheduler {
+    // One propagation in this many is timed; the rest only pay for reading the order
+    static final int SAMPLE_RATE = 32;
+    // Samples a strategy needs before it can be skipped
+    private static final long MIN_SAMPLES = 256;
+    // Strategies below this fraction of the best yield are skipped outside sampled propagations
+    private static final double DISABLE_RATIO = 0.01;
+
+    static final class Stats {
+        final String name;
+        final LongAdder samples = new LongAdder();
+        final LongAdder nanos = new LongAdder();
+        final LongAdder eliminations = new LongAdder();
+
+        Stats(String name) {
+            this.name = name;
+        }
+
+        // Candidates removed per nanosecond, infinite until measured so new strategies run first
+        double yield() {
+            long time = nanos.sum();
+            return time == 0 ? Double.POSITIVE_INFINITY : (double) eliminations.sum() / time;
+        }
+    }
+
+    private final Map<String, Stats> stats = new ConcurrentHashMap<>();
+    private volatile boolean frozen = false;
+
+    Stats register(GlobalStrategy strategy) {
+        return stats.computeIfAbsent(strategy.getName(), Stats::new);
+    }
+
+    // A frozen scheduler keeps its order and stops measuring
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    public void freeze() {
+        frozen = true;
+    }
+
+    // Positions of the given strategies from the highest yield down; ties keep their given order
+    int[] order(Stats[] entries) {
+        double[] yields = new double[entries.length];
+        int[] order = new int[entries.length];
+        for (int k = 0; k < entries.length; ++k) {
+            yields[k] = entries[k].yield();
+            order[k] = k;
+        }
+        for (int k = 1; k < order.length; ++k) {
+            int current = order[k];
+            int j = k - 1;
+            while (j >= 0 && yields[order[j]] < yields[current]) {
+                order[j + 1] = order[j];
+                --j;
+            }
+            order[j + 1] = current;
+        }
+        return order;
+    }
+
+    // Whether the strategy is worth running outside sampled propagations
+    boolean isEnabled(Stats entry, Stats[] entries) {
+        if (entry.samples.sum() < MIN_SAMPLES) return true;
+        // Unmeasured strategies have no yield to compare against yet, so they do not set the bar
+        double best = 0;
+        for (Stats other : entries) {
+            double yield = other.yield();
+            if (yield != Double.POSITIVE_INFINITY) best = Math.max(best, yield);
+        }
+        return entry.yield() >= DISABLE_RATIO * best;
+    }
+
+    // Strategies skipped outside sampled propagations when scheduled with every other known one
+    public Set<String> getSkipped() {
+        Stats[] entries = stats.values().toArray(new Stats[0]);
+        Set<String> skipped = new TreeSet<>();
+        for (Stats entry : entries) {
+            if (!isEnabled(entry, entries)) skipped.add(entry.name);
+        }
+        return skipped;
+    }
+
+    // Eliminations per microsecond by strategy, for reports
+    public Map<String, Double> getYields() {
+        Map<String, Double> yields = new LinkedHashMap<>();
+        stats.forEach((name, entry) -> {
+            if (entry.nanos.sum() > 0) yields.put(name, 1_000 * entry.yield());
+        });
+        return yields;
+    }
+
+    public void save(String filename) throws IOException {
+        JsonObject profile = new JsonObject();
+        stats.forEach((name, entry) -> {
+            JsonObject object = new JsonObject();
+            object.addProperty("samples", entry.samples.sum());
+            object.addProperty("nanos", entry.nanos.sum());
+            object.addProperty("eliminations", entry.eliminations.sum());
+            profile.add(name, object);
+        });
+
+        Gson gson = new GsonBuilder().setPrettyPrinting().create();
+        try (FileWriter writer = new FileWriter(filename)) {
+            gson.toJson(profile, writer);
+        }
+    }
+
+    // Replaces the measurements with a saved profile and freezes the scheduler. Engines read the
+    // order when they are built, so load the profile before building the solvers. A profile that
+    // cannot be read or is malformed leaves the scheduler as it was.
+    public void load(String filename) throws IOException {
+        JsonElement profile;
+        try (FileReader reader = new FileReader(filename)) {
+            profile = new Gson().fromJson(reader, JsonElement.class);
+        }
+        catch (JsonParseException e) {
+            throw new IOException("Malformed strategy profile " + filename + ": " + e.getMessage(), e);
+        }
+        if (profile == null || !profile.isJsonObject()) {
+            throw new IOException("Strategy profile " + filename + " is meant to be a JSON object of strategies.");
+        }
+
+        // Read every entry before applying any
+        List<String> names = new ArrayList<>();
+        List<long[]> values = new ArrayList<>();
+        for (Map.Entry<String, JsonElement> element : profile.getAsJsonObject().entrySet()) {
+            if (!element.getValue().isJsonObject()) {
+                throw new IOException("Strategy profile entry " + element.getKey() + " is meant to be a JSON object.");
+            }
+            JsonObject object = element.getValue().getAsJsonObject();
+            names.add(element.getKey());
+            values.add(new long[] {
+                    count(object, element.getKey(), "samples"),
+                    count(object, element.getKey(), "nanos"),
+                    count(object, element.getKey(), "eliminations")});
+        }
+
+        for (int k = 0; k < names.size(); ++k) {
+            Stats entry = stats.computeIfAbsent(names.get(k), Stats::new);
+            entry.samples.reset();
+            entry.nanos.reset();
+            entry.eliminations.reset();
+            entry.samples.add(values.get(k)[0]);
+            entry.nanos.add(values.get(k)[1]);
+            entry.eliminations.add(values.get(k)[2]);
+        }
+        frozen = true;
+    }
+
+    private static long count(JsonObject object, String name, String field) throws IOException {
+        JsonElement value = object.get(field);
+        if (value == null || !value.isJsonPrimitive() || !((JsonPrimitive) value).isNumber()) {
+            throw new IOException("Strategy profile entry " + name + " has no number for " + field + ".");
+        }
+        try {
+            long count = value.getAsLong();
+            if (count >= 0) return count;
+        }
+        catch (NumberFormatException e) {
+            // Reported below
+        }
+        throw new IOException("Strategy profile entry " + name + " has an invalid " + field + ": " + value);
+    }
+}
@@ -0,0 +1,69 @@
+package solver.strategies;
+
+import solver.com.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+// Estimates how many nodes the MRV search below a board will visit without searching it,
+// following Knuth: a probe walks one random path down the tree, branching on the same MRV cell
+// the search would, and a node at depth d stands for the product of the branching factors
+// above it. The mean over several probes is an unbiased estimate of the full tree size; the
+// search stops at the first solution, so it visits less on boards that have one.
+public class TreeSizeEstimator {
+    // Enough for a rough size class; a probe costs about as much as one path of the search
+    public static final int PROBES = 16;
+
+    private final PropagationEngine engine;
+
+    public TreeSizeEstimator(PropagationEngine engine) {
+        this.engine = engine;
+    }
+
+    public double estimate(Board board) {
+        return estimate(board, PROBES);
+    }
+
+    // Nodes of the search tree below the board, the board itself included, so 1 for a solved
+    // board or a dead end. The board is walked in place and left as it was given, so it must not
+    // be in the middle of a search.
+    public double estimate(Board board, int probes) {
+        if (probes < 1) throw new IllegalArgumentException("At least one probe is needed, but " + probes + " were asked.");
+
+        Trail trail = new Trail();
+        double total = 0;
+        board.setTrail(trail);
+        try {
+            for (int p = 0; p < probes; ++p) {
+                total += probe(board);
+                trail.undo(board, 0);
+                // The restored state is the fixpoint the board was given at, so nothing is dirty
+                board.takeDirtyUnits();
+            }
+        }
+        finally {
+            board.setTrail(null);
+        }
+        return total / probes;
+    }
+
+    private double probe(Board board) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        double size = 1;
+        // Nodes at the current depth, as far as this path can tell
+        double width = 1;
+
+        while (!board.hasContradiction()) {
+            int rootIndex = board.getMinimumRemainingValuesCell();
+            if (rootIndex == -1) break;
+
+            int candidates = board.getCandidates(rootIndex);
+            int count = Integer.bitCount(candidates);
+            width *= count;
+            size += width;
+
+            for (int skip = random.nextInt(count); skip > 0; --skip) candidates &= candidates - 1;
+            engine.assign(board, rootIndex, Cell.first(candidates));
+        }
+        return size;
+    }
+}
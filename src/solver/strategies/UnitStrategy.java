@@ -0,0 +1,9 @@
+package solver.strategies;
+
+import solver.com.Board;
+
+public interface UnitStrategy {
+
+    // Looks only at the given unit set (see Units), for callers that know which units changed
+    boolean perform(Board board, int units);
+}
@@ -1,7 +1,12 @@
 package solver.utils;
 import solver.com.*;
+import solver.wide.WideBoard;
+import solver.wide.WideUnits;
 
 public class SudokuParser {
+    // Largest value with a single char symbol, Z
+    private static final int MAX_SYMBOL = 35;
+
     public static Board parseBoard(String puzzle) {
         if (puzzle.length() != Board.SIZE*Board.SIZE) {
             throw new IllegalStateException("Puzzle string is meant to be " + Board.SIZE*Board.SIZE + " chars long, but " + puzzle.length() + " chars were detected.");
@@ -10,11 +15,8 @@ public class SudokuParser {
         Board board = new Board();
         for (int i = 0; i < puzzle.length(); ++i) {
             char ch = puzzle.charAt(i);
-            if (ch == '.') {
-                board.cells[i / Board.SIZE][i % Board.SIZE] = new Cell();
-            }
-            else {
-                board.cells[i / Board.SIZE][i % Board.SIZE] = new Cell(ch - '0');
+            if (ch != '.') {
+                board.setNumber(i, ch - '0');
             }
         }
 
@@ -23,11 +25,48 @@ public class SudokuParser {
 
     public static String boardToString(Board board) {
         String s = "";
-        for (int i = 0; i < Board.SIZE; ++i) {
-            for (int j = 0; j < Board.SIZE; ++j) {
-                s += (board.cells[i][j].number != 0 ? board.cells[i][j].number : '.');
-            }
+        for (int i = 0; i < Board.CELLS; ++i) {
+            s += (board.getNumber(i) != 0 ? board.getNumber(i) : '.');
         }
         return s;
     }
+
+    // Classic boards of any box size up to 5, one char per cell: 1-9, then A-Z for 10 and up,
+    // and '.' or '0' for an empty cell. The box size follows from the length.
+    public static WideBoard parseWideBoard(String puzzle) {
+        int box = (int) Math.round(Math.sqrt(Math.sqrt(puzzle.length())));
+        if (box * box * box * box != puzzle.length() || box * box > MAX_SYMBOL) {
+            throw new IllegalStateException("Puzzle string is meant to be n^4 chars long for a box size n up to 5, but " + puzzle.length() + " chars were detected.");
+        }
+        return parseWideBoard(puzzle, WideUnits.of(box));
+    }
+
+    // Boards of a variant, in the same format
+    public static WideBoard parseWideBoard(String puzzle, WideUnits units) {
+        if (puzzle.length() != units.cells || units.size > MAX_SYMBOL) {
+            throw new IllegalStateException("Puzzle string is meant to be " + units.cells + " chars long, but " + puzzle.length() + " chars were detected.");
+        }
+
+        WideBoard board = new WideBoard(units);
+        for (int i = 0; i < puzzle.length(); ++i) {
+            char ch = puzzle.charAt(i);
+            if (ch == '.' || ch == '0') continue;
+            int number = Character.digit(ch, MAX_SYMBOL + 1);
+            if (number < 1 || number > units.size) {
+                throw new IllegalStateException("Char '" + ch + "' at " + i + " is not a value of a " + units.size + "x" + units.size + " board.");
+            }
+            board.setNumber(i, number);
+        }
+
+        return board;
+    }
+
+    public static String wideBoardToString(WideBoard board) {
+        StringBuilder s = new StringBuilder(board.units.cells);
+        for (int i = 0; i < board.units.cells; ++i) {
+            int number = board.getNumber(i);
+            s.append(number != 0 ? Character.toUpperCase(Character.forDigit(number, MAX_SYMBOL + 1)) : '.');
+        }
+        return s.toString();
+    }
 }
@@ -5,7 +5,7 @@ public class SudokuPrinter {
     public static void printBoard(Board board) {
         for (int i = 0; i < Board.SIZE; ++i) {
             for (int j = 0; j < Board.SIZE; ++j) {
-                System.out.print(board.cells[i][j].number + " ");
+                System.out.print(board.getCell(i, j).number + " ");
             }
             System.out.println();
         }
@@ -0,0 +1,46 @@
+package solver.wide;
+
+// Variants adding units to the classic rows, columns and boxes. Irregular regions replace the
+// boxes instead, see WideUnits.jigsaw.
+public enum Variant {
+    CLASSIC,
+    // Both main diagonals hold every digit
+    X,
+    // Windoku: four 3x3 windows one cell in from the box boundaries hold every digit too. Only
+    // defined on 9x9 grids.
+    WINDOKU;
+
+    public boolean supports(int box) {
+        return this != WINDOKU || box == 3;
+    }
+
+    int[][] units(int box) {
+        int size = box * box;
+        int[] boxStarts = new int[box];
+        for (int k = 0; k < box; ++k) boxStarts[k] = k * box;
+
+        int[][] lines = WideUnits.linesOf(size);
+        int[][] boxes = WideUnits.squaresOf(box, boxStarts);
+        int[][] extra = new int[0][];
+        switch (this) {
+            case X:
+                extra = new int[2][size];
+                for (int k = 0; k < size; ++k) {
+                    extra[0][k] = k * size + k;
+                    extra[1][k] = k * size + size - 1 - k;
+                }
+                break;
+            case WINDOKU:
+                extra = WideUnits.squaresOf(box, new int[]{1, 5});
+                break;
+            default:
+                break;
+        }
+
+        int[][] units = new int[lines.length + boxes.length + extra.length][];
+        System.arraycopy(lines, 0, units, 0, lines.length);
+        System.arraycopy(boxes, 0, units, lines.length, boxes.length);
+        System.arraycopy(extra, 0, units, lines.length + boxes.length, extra.length);
+        return units;
+    }
+}
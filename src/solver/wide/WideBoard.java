@@ -0,0 +1,85 @@
+package solver.wide;
+
+import java.util.Arrays;
+
+// Board of any size and variant. Candidates are long masks with bit (v - 1) set while v is
+// still possible, so the same code serves 16x16, 25x25 and up to 64 digits.
+public class WideBoard {
+    public final WideUnits units;
+    private final int[] numbers;
+    private final long[] candidates;
+    // When set, every change is recorded so a search can undo it; copies never share it
+    private WideTrail trail;
+
+    // Classic board of box size n
+    public WideBoard(int box) {
+        this(WideUnits.of(box));
+    }
+
+    public WideBoard(WideUnits units) {
+        this.units = units;
+        this.numbers = new int[units.cells];
+        this.candidates = new long[units.cells];
+        Arrays.fill(candidates, units.allCandidates);
+    }
+
+    private WideBoard(WideBoard board) {
+        this.units = board.units;
+        this.numbers = board.numbers.clone();
+        this.candidates = board.candidates.clone();
+    }
+
+    public static WideBoard copy(WideBoard board) {
+        return new WideBoard(board);
+    }
+
+    public static void copyTo(WideBoard source, WideBoard target) {
+        System.arraycopy(source.numbers, 0, target.numbers, 0, source.numbers.length);
+        System.arraycopy(source.candidates, 0, target.candidates, 0, source.candidates.length);
+    }
+
+    public static long bit(int value) {
+        return 1L << (value - 1);
+    }
+
+    public static int first(long mask) {
+        return Long.numberOfTrailingZeros(mask) + 1;
+    }
+
+    public void setTrail(WideTrail trail) {
+        this.trail = trail;
+    }
+
+    public int getNumber(int index) {
+        return numbers[index];
+    }
+
+    public long getCandidates(int index) {
+        return candidates[index];
+    }
+
+    // Only places the number; peers keep their candidates until the solver eliminates them
+    public void setNumber(int index, int number) {
+        if (trail != null) trail.record(index, numbers[index], candidates[index]);
+        numbers[index] = number;
+        candidates[index] = 0;
+    }
+
+    public void setNumber(int row, int col, int number) {
+        setNumber(row * units.size + col, number);
+    }
+
+    // Removes the candidate bits in mask from the cell, returning true if any was present
+    public boolean removeCandidates(int index, long mask) {
+        long current = candidates[index];
+        if ((current & mask) == 0) return false;
+        if (trail != null) trail.record(index, 0, current);
+        candidates[index] = current & ~mask;
+        return true;
+    }
+
+    void restore(int index, int number, long cellCandidates) {
+        numbers[index] = number;
+        candidates[index] = cellCandidates;
+    }
+}
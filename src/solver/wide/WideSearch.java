@@ -0,0 +1,133 @@
+package solver.wide;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// Propagation and depth-first search for boards of any size and variant. Placements eliminate from
+// their peers through a worklist, so naked singles cost time only when they happen; hidden
+// singles are found per unit by counting candidates in two bit planes.
+public class WideSearch {
+    // Guesses made over every solve so far; shared by every thread running this search
+    private final LongAdder nodes = new LongAdder();
+
+    public long getNodes() {
+        return nodes.sum();
+    }
+
+    // Solves the board in place, returning false if it has no solution
+    public boolean solve(WideBoard board) {
+        WideUnits units = board.units;
+        WideBoard work = WideBoard.copy(board);
+        // Cells placed but not yet eliminated from their peers
+        int[] queue = new int[units.cells];
+        int count = 0;
+        for (int i = 0; i < units.cells; ++i) {
+            int number = work.getNumber(i);
+            if (number == 0) continue;
+            if (number > units.size) return false;
+            queue[count++] = i;
+        }
+
+        if (!propagate(work, queue, count)) return false;
+        // Only the search guesses, so the clues propagate without a trail
+        WideTrail trail = new WideTrail();
+        work.setTrail(trail);
+        if (!search(work, queue, trail)) return false;
+        work.setTrail(null);
+        WideBoard.copyTo(work, board);
+        return true;
+    }
+
+    // Leaves the solution on the board, or the board as it was given if there is none
+    private boolean search(WideBoard board, int[] queue, WideTrail trail) {
+        int cell = getMinimumRemainingValuesCell(board);
+        if (cell == -1) return true;
+
+        int mark = trail.mark();
+        for (long m = board.getCandidates(cell); m != 0; m &= m - 1) {
+            nodes.increment();
+            board.setNumber(cell, WideBoard.first(m));
+            queue[0] = cell;
+            if (propagate(board, queue, 1) && search(board, queue, trail)) return true;
+            trail.undo(board, mark);
+        }
+        return false;
+    }
+
+    // Eliminates the numbers of the first count queued cells from their peers, placing the
+    // singles this reveals, until nothing is left to place. False on a contradiction.
+    private boolean propagate(WideBoard board, int[] queue, int count) {
+        int[][] peers = board.units.peers;
+        while (true) {
+            while (count > 0) {
+                int cell = queue[--count];
+                int number = board.getNumber(cell);
+                long mask = WideBoard.bit(number);
+                for (int peer : peers[cell]) {
+                    if (board.getNumber(peer) == number) return false;
+                    if (!board.removeCandidates(peer, mask)) continue;
+
+                    long remaining = board.getCandidates(peer);
+                    if (remaining == 0) return false;
+                    if ((remaining & (remaining - 1)) == 0) {
+                        board.setNumber(peer, WideBoard.first(remaining));
+                        queue[count++] = peer;
+                    }
+                }
+            }
+
+            count = placeHiddenSingles(board, queue);
+            if (count < 0) return false;
+            if (count == 0) return true;
+        }
+    }
+
+    // Places every digit left with a single cell in some unit and queues those cells.
+    // Returns how many were queued, or -1 if a unit can no longer hold some digit.
+    private int placeHiddenSingles(WideBoard board, int[] queue) {
+        WideUnits units = board.units;
+        int count = 0;
+
+        for (int[] unit : units.units) {
+            // Shorter units only forbid repeats, some digits may be missing from them
+            if (unit.length != units.size) continue;
+            long once = 0;
+            long twice = 0;
+            long placed = 0;
+            for (int cell : unit) {
+                long candidates = board.getCandidates(cell);
+                twice |= once & candidates;
+                once |= candidates;
+                if (board.getNumber(cell) != 0) placed |= WideBoard.bit(board.getNumber(cell));
+            }
+            if ((once | placed) != units.allCandidates) return -1;
+
+            long unique = once & ~twice & ~placed;
+            if (unique == 0) continue;
+            for (int cell : unit) {
+                long hidden = board.getCandidates(cell) & unique;
+                if (hidden == 0) continue;
+                // One cell cannot be the only place for two digits
+                if ((hidden & (hidden - 1)) != 0) return -1;
+                board.setNumber(cell, WideBoard.first(hidden));
+                queue[count++] = cell;
+            }
+        }
+        return count;
+    }
+
+    // Empty cell with the fewest candidates (lowest index on ties), or -1 if every cell is filled
+    private int getMinimumRemainingValuesCell(WideBoard board) {
+        int minVal = Integer.MAX_VALUE;
+        int rootIndex = -1;
+        for (int i = 0; i < board.units.cells; ++i) {
+            if (board.getNumber(i) != 0) continue;
+            int size = Long.bitCount(board.getCandidates(i));
+            if (size < minVal) {
+                minVal = size;
+                rootIndex = i;
+                if (size <= 2) break;
+            }
+        }
+        return rootIndex;
+    }
+}
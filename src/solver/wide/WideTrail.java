@@ -0,0 +1,48 @@
+package solver.wide;
+
+// The Trail of WideBoard: each entry stores the cell index and its number and candidates before
+// the change, so a search can undo a guess instead of copying the board for it
+public class WideTrail {
+    private int[] cells;
+    private int[] numbers;
+    private long[] candidates;
+    private int size;
+
+    public WideTrail() {
+        this.cells = new int[256];
+        this.numbers = new int[256];
+        this.candidates = new long[256];
+        this.size = 0;
+    }
+
+    public int mark() {
+        return size;
+    }
+
+    void record(int index, int number, long cellCandidates) {
+        if (size == cells.length) {
+            int length = 2 * cells.length;
+            int[] grownCells = new int[length];
+            int[] grownNumbers = new int[length];
+            long[] grownCandidates = new long[length];
+            System.arraycopy(cells, 0, grownCells, 0, size);
+            System.arraycopy(numbers, 0, grownNumbers, 0, size);
+            System.arraycopy(candidates, 0, grownCandidates, 0, size);
+            cells = grownCells;
+            numbers = grownNumbers;
+            candidates = grownCandidates;
+        }
+        cells[size] = index;
+        numbers[size] = number;
+        candidates[size] = cellCandidates;
+        ++size;
+    }
+
+    // Restores every cell changed since mark, newest change first
+    public void undo(WideBoard board, int mark) {
+        while (size > mark) {
+            --size;
+            board.restore(cells[size], numbers[size], candidates[size]);
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package solver.wide;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+// Unit and peer tables for a grid of size x size cells with digits 1 to size, compiled from a
+// list of all-different units. Classic grids of box size n have size n^2 and rows, columns
+// and boxes as units; variants add or replace units. Each variant is compiled once and
+// shared, like Units is for the 9x9 grid, so boards of a known variant cost no setup. Any other
+// list of units compiles with of(size, units), whose tables the caller keeps.
+public class WideUnits {
+    // Candidate masks are longs, so up to 64 digits
+    public static final int MAX_SIZE = Long.SIZE;
+    public static final int MAX_BOX = 8;
+
+    private static final WideUnits[] CLASSIC = new WideUnits[MAX_BOX + 1];
+    private static final Map<String, WideUnits> CACHE = new ConcurrentHashMap<>();
+
+    public final String name;
+    public final int size;
+    public final int cells;
+    public final long allCandidates;
+
+    // Cell indexes of every unit. Units of size cells must hold every digit; shorter ones only
+    // forbid repeats.
+    public final int[][] units;
+    // The units of every cell
+    public final int[][] cellUnits;
+    // The distinct cells sharing a unit with every cell, excluding the cell itself
+    public final int[][] peers;
+
+    // Rows, columns and boxes of box size n
+    public static synchronized WideUnits of(int box) {
+        checkBox(box);
+        if (CLASSIC[box] == null) CLASSIC[box] = compile(Variant.CLASSIC, box);
+        return CLASSIC[box];
+    }
+
+    public static WideUnits of(Variant variant, int box) {
+        if (variant == Variant.CLASSIC) return of(box);
+        checkBox(box);
+        if (!variant.supports(box)) {
+            throw new IllegalArgumentException(variant + " is not defined for box size " + box);
+        }
+        return compile(variant, box);
+    }
+
+    private static WideUnits compile(Variant variant, int box) {
+        return compile(variant + " " + box, box * box, () -> variant.units(box));
+    }
+
+    // Rows and columns with irregular regions instead of boxes. The layout has one char per
+    // cell, equal chars marking the cells of one region, and every region has size cells.
+    // Layouts are not cached, since there is no end to them; keep the tables to reuse them.
+    public static WideUnits jigsaw(String regions) {
+        int size = (int) Math.round(Math.sqrt(regions.length()));
+        if (size * size != regions.length() || size > MAX_SIZE) {
+            throw new IllegalArgumentException("Region layout is meant to be size^2 chars long for a size up to " + MAX_SIZE + ", but " + regions.length() + " chars were detected.");
+        }
+
+        int[][] units = new int[3 * size][];
+        System.arraycopy(linesOf(size), 0, units, 0, 2 * size);
+
+        // Regions are numbered in the order their first cell appears
+        String symbols = "";
+        int[] filled = new int[size];
+        for (int i = 0; i < regions.length(); ++i) {
+            char symbol = regions.charAt(i);
+            int region = symbols.indexOf(symbol);
+            if (region == -1) {
+                region = symbols.length();
+                symbols += symbol;
+                if (region == size) throw new IllegalArgumentException("Region layout has more than " + size + " regions.");
+                units[2 * size + region] = new int[size];
+            }
+            if (filled[region] == size) throw new IllegalArgumentException("Region '" + symbol + "' has more than " + size + " cells.");
+            units[2 * size + region][filled[region]++] = i;
+        }
+        for (int region = 0; region < size; ++region) {
+            if (filled[region] != size) throw new IllegalArgumentException("Region layout needs " + size + " regions of " + size + " cells.");
+        }
+        return new WideUnits("JIGSAW " + regions, size, units);
+    }
+
+    // Compiled on the first call for a name and cached under it. Only variants get here, whose
+    // name fixes the size and the units.
+    private static WideUnits compile(String name, int size, Supplier<int[][]> units) {
+        WideUnits cached = CACHE.get(name);
+        if (cached != null) return cached;
+        return CACHE.computeIfAbsent(name, key -> new WideUnits(key, size, units.get()));
+    }
+
+    // Any list of all-different units on a size x size grid, each one size distinct cells of the
+    // grid. The units are copied, and the tables are built on every call; keep them to reuse them.
+    public static WideUnits of(int size, int[][] units) {
+        if (size < 1 || size > MAX_SIZE) {
+            throw new IllegalArgumentException("Size must be between 1 and " + MAX_SIZE + ", but was " + size);
+        }
+        int[][] copy = new int[units.length][];
+        for (int u = 0; u < units.length; ++u) {
+            if (units[u] == null || units[u].length != size) {
+                throw new IllegalArgumentException("Unit " + u + " is meant to have " + size + " cells.");
+            }
+            copy[u] = units[u].clone();
+        }
+        return new WideUnits("CUSTOM " + size, size, copy);
+    }
+
+    // Every row, then every column
+    static int[][] linesOf(int size) {
+        int[][] lines = new int[2 * size][size];
+        for (int i = 0; i < size * size; ++i) {
+            lines[i / size][i % size] = i;
+            lines[size + i % size][i / size] = i;
+        }
+        return lines;
+    }
+
+    // The box x box squares whose top left cells are at the given rows and columns
+    static int[][] squaresOf(int box, int[] starts) {
+        int size = box * box;
+        int[][] squares = new int[starts.length * starts.length][size];
+        for (int s = 0; s < squares.length; ++s) {
+            int top = starts[s / starts.length];
+            int left = starts[s % starts.length];
+            for (int k = 0; k < size; ++k) {
+                squares[s][k] = (top + k / box) * size + left + k % box;
+            }
+        }
+        return squares;
+    }
+
+    private static void checkBox(int box) {
+        if (box < 1 || box > MAX_BOX) {
+            throw new IllegalArgumentException("Box size must be between 1 and " + MAX_BOX + ", but was " + box);
+        }
+    }
+
+    private WideUnits(String name, int size, int[][] units) {
+        if (size < 1 || size > MAX_SIZE) {
+            throw new IllegalArgumentException("Size must be between 1 and " + MAX_SIZE + ", but was " + size);
+        }
+        this.name = name;
+        this.size = size;
+        this.cells = size * size;
+        this.allCandidates = size == Long.SIZE ? -1L : (1L << size) - 1;
+        this.units = units;
+
+        // Holds the last unit or cell index + 1 that listed each cell, to skip repeats
+        int[] listed = new int[cells];
+        int[] unitCount = new int[cells];
+        for (int u = 0; u < units.length; ++u) {
+            if (units[u].length > size) {
+                throw new IllegalArgumentException("Unit " + u + " has " + units[u].length + " cells, more than the " + size + " digits.");
+            }
+            for (int i : units[u]) {
+                if (i < 0 || i >= cells || listed[i] == u + 1) {
+                    throw new IllegalArgumentException("Unit " + u + " lists cell " + i + " twice or out of the grid.");
+                }
+                listed[i] = u + 1;
+                ++unitCount[i];
+            }
+        }
+
+        cellUnits = new int[cells][];
+        for (int i = 0; i < cells; ++i) {
+            cellUnits[i] = new int[unitCount[i]];
+            unitCount[i] = 0;
+        }
+        for (int u = 0; u < units.length; ++u) {
+            for (int i : units[u]) cellUnits[i][unitCount[i]++] = u;
+        }
+
+        peers = new int[cells][];
+        int[] buffer = new int[cells];
+        Arrays.fill(listed, 0);
+        for (int i = 0; i < cells; ++i) {
+            listed[i] = i + 1;
+            int k = 0;
+            for (int unit : cellUnits[i]) {
+                for (int j : units[unit]) {
+                    if (listed[j] == i + 1) continue;
+                    listed[j] = i + 1;
+                    buffer[k++] = j;
+                }
+            }
+            peers[i] = Arrays.copyOf(buffer, k);
+        }
+    }
+}
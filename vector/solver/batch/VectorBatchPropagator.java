@@ -0,0 +1,95 @@
+package solver.batch;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+import solver.com.*;
+
+// The rounds of ScalarBatchPropagator with one vector lane per puzzle. Lives in its own source
+// root, the SudokuSolverVector module, since it needs --add-modules jdk.incubator.vector to
+// compile and to run; the main sources build on plain JDK 17. SimdBatchSolver only loads this
+// class when it is on the class path and the module is present at run time.
+public class VectorBatchPropagator implements BatchPropagator {
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+
+    @Override
+    public int laneCount() {
+        return SPECIES.length();
+    }
+
+    @Override
+    public boolean propagate(BatchBoards boards) {
+        int lanes = boards.lanes;
+        int[] candidates = boards.candidates;
+        int[] placed = boards.placed;
+        int[] dead = boards.dead;
+        IntVector zero = IntVector.zero(SPECIES);
+        boolean changed = false;
+
+        // Elimination and naked singles
+        for (int i = 0; i < Board.CELLS; ++i) {
+            int[] peers = Units.PEERS[i];
+            int offset = i * lanes;
+            for (int p = 0; p < lanes; p += SPECIES.length()) {
+                IntVector taken = zero;
+                for (int k = 0; k < peers.length; ++k) {
+                    taken = taken.or(IntVector.fromArray(SPECIES, placed, peers[k] * lanes + p));
+                }
+
+                IntVector c = IntVector.fromArray(SPECIES, candidates, offset + p).and(taken.not());
+                c.intoArray(candidates, offset + p);
+
+                VectorMask<Integer> empty = c.eq(0);
+                if (empty.anyTrue()) IntVector.fromArray(SPECIES, dead, p).blend(1, empty).intoArray(dead, p);
+
+                IntVector f = IntVector.fromArray(SPECIES, placed, offset + p);
+                VectorMask<Integer> single = c.and(c.sub(1)).eq(0).andNot(empty).and(f.eq(0));
+                if (single.anyTrue()) {
+                    f.blend(c, single).intoArray(placed, offset + p);
+                    changed = true;
+                }
+            }
+        }
+
+        // Hidden singles, counting candidates in two bit planes across the cells of each unit
+        for (int u = 0; u < Units.UNIT_COUNT; ++u) {
+            int[] cells = Units.UNITS[u];
+            for (int p = 0; p < lanes; p += SPECIES.length()) {
+                IntVector one = zero;
+                IntVector two = zero;
+                for (int cell : cells) {
+                    IntVector c = IntVector.fromArray(SPECIES, candidates, cell * lanes + p);
+                    two = two.or(one.and(c));
+                    one = one.or(c);
+                }
+                VectorMask<Integer> missing = one.compare(VectorOperators.NE, Cell.ALL_CANDIDATES);
+                if (missing.anyTrue()) IntVector.fromArray(SPECIES, dead, p).blend(1, missing).intoArray(dead, p);
+
+                IntVector unique = one.and(two.not());
+                if (!unique.compare(VectorOperators.NE, 0).anyTrue()) continue;
+                for (int cell : cells) {
+                    int index = cell * lanes + p;
+                    IntVector c = IntVector.fromArray(SPECIES, candidates, index);
+                    IntVector f = IntVector.fromArray(SPECIES, placed, index);
+                    IntVector h = c.and(unique);
+                    VectorMask<Integer> hit = h.compare(VectorOperators.NE, 0).and(f.eq(0));
+                    if (!hit.anyTrue()) continue;
+
+                    // One cell cannot be the only place for two digits
+                    VectorMask<Integer> multiple = h.and(h.sub(1)).compare(VectorOperators.NE, 0).and(hit);
+                    if (multiple.anyTrue()) IntVector.fromArray(SPECIES, dead, p).blend(1, multiple).intoArray(dead, p);
+
+                    VectorMask<Integer> place = hit.andNot(multiple);
+                    if (place.anyTrue()) {
+                        c.blend(h, place).intoArray(candidates, index);
+                        f.blend(h, place).intoArray(placed, index);
+                        changed = true;
+                    }
+                }
+            }
+        }
+
+        return changed;
+    }
+}